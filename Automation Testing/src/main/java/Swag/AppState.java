@@ -0,0 +1,78 @@
+package Swag;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+
+/**
+ * Puts the application back into the state of a freshly launched browser without relaunching it: the sidebar's
+ * "Reset App State" (when a user is still logged in), no cookies, empty local and session storage, and the login
+ * page. {@link #check()} then verifies all of it with a single script.
+ */
+public class AppState {
+
+    public record Check(String url, int cookies, int localStorage, int sessionStorage, boolean loginPage,
+                        boolean cartBadge) {
+
+        public boolean clean() {
+            return cookies == 0 && localStorage == 0 && sessionStorage == 0 && loginPage && !cartBadge;
+        }
+    }
+
+    // The sidebar is rendered (hidden) on every page behind the login, so its link can be clicked without opening it
+    private static final String SIDEBAR_RESET =
+            "const link = document.getElementById('reset_sidebar_link');"
+                    + "if (link) { link.click(); }"
+                    + "return !!link;";
+
+    private static final String CLEAR_STORAGE = "window.localStorage.clear(); window.sessionStorage.clear();";
+
+    // document.cookie does not show HttpOnly cookies; deleteAllCookies() removed those before the check
+    private static final String CHECK =
+            "return {"
+                    + "  url: window.location.href,"
+                    + "  cookies: document.cookie ? document.cookie.split(';').length : 0,"
+                    + "  localStorage: window.localStorage.length,"
+                    + "  sessionStorage: window.sessionStorage.length,"
+                    + "  loginPage: !!document.getElementById('login-button'),"
+                    + "  cartBadge: !!document.querySelector('.shopping_cart_badge')"
+                    + "};";
+
+    private final WebDriver driver;
+
+    public AppState(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    // Reset to a logged-out login page and report whether that worked
+    public boolean resetToLoginPage() {
+        return StepMetrics.time("AppState.resetToLoginPage", () -> {
+            String baseUrl = AppUnderTest.baseUrl();
+            if (driver.getCurrentUrl().startsWith(baseUrl)) {
+                ((JavascriptExecutor) driver).executeScript(SIDEBAR_RESET);
+            } else {
+                // Cookies and storage can only be cleared from the application's own origin
+                driver.get(baseUrl);
+            }
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE);
+            driver.get(baseUrl);
+            return check().clean();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public Check check() {
+        return StepMetrics.time("AppState.check", () -> {
+            Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CHECK);
+            return new Check(String.valueOf(raw.get("url")), number(raw.get("cookies")), number(raw.get("localStorage")),
+                    number(raw.get("sessionStorage")), Boolean.TRUE.equals(raw.get("loginPage")),
+                    Boolean.TRUE.equals(raw.get("cartBadge")));
+        });
+    }
+
+    private static int number(Object value) {
+        return value instanceof Number n ? n.intValue() : 0;
+    }
+}
@@ -0,0 +1,48 @@
+package Swag;
+
+import java.net.URI;
+
+/**
+ * Resolves the base URL every page object and test navigates to. By default this is the public
+ * saucedemo.com ({@link LoginData#url}); {@code -Dswag.baseUrl=...} points the suite at another deployment and
+ * {@code -Dswag.local=true} starts the embedded {@link StandInServer} and targets it.
+ */
+public class AppUnderTest {
+
+    private static volatile String baseUrl;
+
+    private AppUnderTest() {
+    }
+
+    // Always ends with a slash, so pages can be appended directly ("inventory.html")
+    public static String baseUrl() {
+        String url = baseUrl;
+        if (url == null) {
+            synchronized (AppUnderTest.class) {
+                if (baseUrl == null) {
+                    baseUrl = resolve();
+                }
+                url = baseUrl;
+            }
+        }
+        return url;
+    }
+
+    public static boolean isLocal() {
+        return Boolean.getBoolean("swag.local");
+    }
+
+    // Short name of the deployment for keys that must not mix timings of different ones: "stand-in" or the host
+    public static String target() {
+        if (isLocal()) {
+            return "stand-in";
+        }
+        String authority = URI.create(baseUrl()).getAuthority();
+        return authority == null ? baseUrl() : authority;
+    }
+
+    private static String resolve() {
+        String url = isLocal() ? StandInServer.shared().baseUrl() : System.getProperty("swag.baseUrl", LoginData.url);
+        return url.endsWith("/") ? url : url + "/";
+    }
+}
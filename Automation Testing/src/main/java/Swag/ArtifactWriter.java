@@ -0,0 +1,192 @@
+package Swag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes {@link FailureArtifacts} on a small pool of background threads, so a failing test hands its evidence
+ * over and releases its browser right away. Page source and console log are gzip-compressed; the screenshot is
+ * kept as the PNG the driver returned, which is compressed already. Files go through {@link FileChannel}s into
+ * {@code <reportDir>/artifacts/<test>/<user>-<time>/}.
+ *
+ * At most {@code swag.artifacts.threads} (default 2) writes run at once and {@code swag.artifacts.queue}
+ * (default 16) more wait. When the writers fall that far behind, {@link #submit} blocks (backpressure) rather than
+ * letting captured screenshots pile up in memory.
+ */
+public class ArtifactWriter {
+
+    private static ArtifactWriter shared;
+    private static Thread sharedShutdownHook;
+
+    private final Path directory;
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    // One permit per artifact set that may be running or queued
+    private final Semaphore slots;
+
+    // Statistics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final AtomicLong maxBlockedNanos = new AtomicLong();
+
+    public ArtifactWriter(Path directory, int threads, int queueSize) {
+        this.directory = directory;
+        this.capacity = threads + queueSize;
+        this.slots = new Semaphore(capacity);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                // Room for every permit, so a task handed over just as a worker frees its slot is never rejected
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "artifact-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Writer for the suite; pending artifacts are flushed when the JVM exits
+    public static synchronized ArtifactWriter shared() {
+        if (shared == null) {
+            shared = new ArtifactWriter(StepMetrics.reportDirectory().resolve("artifacts"),
+                    Integer.getInteger("swag.artifacts.threads", 2),
+                    Integer.getInteger("swag.artifacts.queue", 16));
+            ArtifactWriter writer = shared;
+            sharedShutdownHook = new Thread(() -> writer.awaitIdle(Duration.ofSeconds(30)), "artifact-writer-shutdown");
+            Runtime.getRuntime().addShutdownHook(sharedShutdownHook);
+        }
+        return shared;
+    }
+
+    // Flush and stop the shared writer now instead of at exit (see HotRunner#closeLoader)
+    static synchronized void closeShared() {
+        if (shared != null) {
+            Runtime.getRuntime().removeShutdownHook(sharedShutdownHook);
+            shared.awaitIdle(Duration.ofSeconds(30));
+            shared.executor.shutdown();
+            shared = null;
+        }
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("swag.artifacts", "true"));
+    }
+
+    public void submit(FailureArtifacts artifacts) {
+        long start = System.nanoTime();
+        slots.acquireUninterruptibly();
+        long blocked = System.nanoTime() - start;
+        blockedNanos.add(blocked);
+        maxBlockedNanos.accumulateAndGet(blocked, Math::max);
+        submitted.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    write(artifacts);
+                    written.increment();
+                } catch (UncheckedIOException e) {
+                    failed.increment();
+                    System.err.println("Could not write failure artifacts of " + artifacts.test() + ": " + e.getMessage());
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Not expected, the queue has room for every permit
+            slots.release();
+            failed.increment();
+        }
+    }
+
+    // Wait until everything submitted so far is on disk
+    public boolean awaitIdle(Duration timeout) {
+        try {
+            if (slots.tryAcquire(capacity, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                slots.release(capacity);
+                return true;
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public String report() {
+        return String.format("Failure artifacts: captured=%d, written=%d, failed=%d, bytes=%d, "
+                        + "avg submit wait=%.1f ms, max submit wait=%.1f ms -> %s",
+                submitted.sum(), written.sum(), failed.sum(), bytesWritten.sum(),
+                submitted.sum() == 0 ? 0 : blockedNanos.sum() / 1_000_000.0 / submitted.sum(),
+                maxBlockedNanos.get() / 1_000_000.0, directory.toAbsolutePath());
+    }
+
+    public long submittedCount() {
+        return submitted.sum();
+    }
+
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    Path folderFor(FailureArtifacts artifacts) {
+        return directory.resolve(safe(artifacts.test())).resolve(safe(artifacts.user()) + "-" + artifacts.capturedAtMillis());
+    }
+
+    private void write(FailureArtifacts artifacts) {
+        Path folder = folderFor(artifacts);
+        try {
+            Files.createDirectories(folder);
+            if (artifacts.screenshot().length > 0) {
+                writeFile(folder.resolve("screenshot.png"), artifacts.screenshot());
+            }
+            writeFile(folder.resolve("page.html.gz"), gzip(artifacts.pageSource()));
+            writeFile(folder.resolve("console.log.gz"), gzip(String.join("\n", artifacts.consoleLog())));
+            writeFile(folder.resolve("failure.txt"), ("url: " + artifacts.url() + "\n" + artifacts.failure() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFile(Path file, byte[] content) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        bytesWritten.add(content.length);
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String safe(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
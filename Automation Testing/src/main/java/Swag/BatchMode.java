@@ -0,0 +1,18 @@
+package Swag;
+
+import java.util.Locale;
+
+/**
+ * How {@link ProductsPage} applies a batch of cart changes.
+ */
+public enum BatchMode {
+    // Resolve all target buttons once, then click them back to back without re-querying the page
+    PIPELINED,
+    // Click every target button inside the page with one script call
+    SCRIPTED;
+
+    // Default from -Dswag.cart.batchMode=pipelined|scripted
+    public static BatchMode fromSystemProperty() {
+        return valueOf(System.getProperty("swag.cart.batchMode", "pipelined").toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,83 @@
+package Swag;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The browsers a test can run in. Tests that check what the page renders keep a maximized Chrome; tests that only
+ * read badge counts, button texts or URLs can run headless or in the in-JVM HtmlUnit engine, which start and answer
+ * commands much faster.
+ *
+ * The engine is chosen per TestNG group: {@code swag.engine.<group>} (a system property, or else a parameter in
+ * testng.xml) names the engine for the tests in that group, and {@code swag.engine} the one for all other tests
+ * (default {@code chrome}). The engine of the running test is selected per thread by {@link EngineListener} before
+ * its {@code @BeforeMethod}, so {@link DriverManager#start()} leases from the pool of that engine.
+ */
+public enum BrowserEngine {
+
+    /** Maximized Chrome window, as on a tester's desk. */
+    CHROME,
+    /** Chrome in the new headless mode with the fixed viewport of {@link DriverFactory#headlessOptions()}. */
+    HEADLESS,
+    /** HtmlUnit in this JVM; needs the {@code htmlunit} Maven profile. */
+    HTMLUNIT;
+
+    public static final String PROPERTY = "swag.engine";
+
+    private static final ThreadLocal<BrowserEngine> SELECTED = new ThreadLocal<>();
+
+    public WebDriver launch() {
+        return DriverFactory.create(this);
+    }
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static BrowserEngine fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown browser engine '" + name + "', expected chrome, headless or htmlunit");
+        }
+    }
+
+    // The engine for tests in the given groups; the first group with an engine of its own wins
+    public static BrowserEngine forGroups(Collection<String> groups, Map<String, String> suiteParameters) {
+        for (String group : groups) {
+            String name = setting(PROPERTY + "." + group, suiteParameters);
+            if (name != null) {
+                return fromName(name);
+            }
+        }
+        String name = setting(PROPERTY, suiteParameters);
+        return name == null ? CHROME : fromName(name);
+    }
+
+    public static BrowserEngine defaultEngine() {
+        String name = System.getProperty(PROPERTY);
+        return name == null ? CHROME : fromName(name);
+    }
+
+    // The engine chosen for the test running on this thread, or the default outside of a test
+    public static BrowserEngine selected() {
+        BrowserEngine engine = SELECTED.get();
+        return engine == null ? defaultEngine() : engine;
+    }
+
+    public static void select(BrowserEngine engine) {
+        SELECTED.set(engine);
+    }
+
+    // A system property overrides the same setting in testng.xml
+    private static String setting(String key, Map<String, String> suiteParameters) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = suiteParameters.get(key);
+        }
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,223 @@
+package Swag;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fingerprints of a compiled class, read from its class file: one per method, and the {@code By} locators the class
+ * declares with a literal ({@code By.id("first-name")} is {@code "By.id: first-name"}, as {@code By.toString()}
+ * prints it).
+ *
+ * A method's fingerprint is a hash of its instructions with every constant-pool operand replaced by the constant it
+ * names, so it changes with the code and the literals in it but not with line numbers, comments or edits elsewhere in
+ * the class. Overloads share one fingerprint, keyed by the method name.
+ */
+public class BytecodeFingerprint {
+
+    /** The fingerprints of one class; empty when its class file cannot be found. */
+    public record ClassPrint(Map<String, String> methods, Set<String> locators) {
+    }
+
+    private static final String BY = "org/openqa/selenium/By";
+    private static final ClassPrint MISSING = new ClassPrint(Map.of(), Set.of());
+    private static final Map<String, ClassPrint> CACHE = new ConcurrentHashMap<>();
+
+    private BytecodeFingerprint() {
+    }
+
+    // Read once per JVM; class files do not change under a running suite
+    public static ClassPrint of(String className) {
+        return CACHE.computeIfAbsent(className, BytecodeFingerprint::read);
+    }
+
+    static ClassPrint read(String className) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = BytecodeFingerprint.class.getClassLoader();
+        }
+        try (InputStream in = loader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            return in == null ? MISSING : parse(in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ClassPrint parse(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        in.skipBytes(8); // magic, minor and major version
+        Object[] pool = readPool(in);
+        in.skipBytes(6); // access flags, this class, super class
+        in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+        Map<String, ByteArrayOutputStream> bodies = new TreeMap<>();
+        Set<String> locators = new TreeSet<>();
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            in.skipBytes(2);
+            String name = (String) pool[in.readUnsignedShort()];
+            String descriptor = (String) pool[in.readUnsignedShort()];
+            ByteArrayOutputStream body = bodies.computeIfAbsent(name, n -> new ByteArrayOutputStream());
+            body.writeBytes((descriptor + "\n").getBytes(StandardCharsets.UTF_8));
+            int attributes = in.readUnsignedShort();
+            for (int a = 0; a < attributes; a++) {
+                String attribute = (String) pool[in.readUnsignedShort()];
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                if (attribute.equals("Code")) {
+                    ByteBuffer code = ByteBuffer.wrap(content);
+                    code.position(4); // max stack, max locals
+                    byte[] instructions = new byte[code.getInt()];
+                    code.get(instructions);
+                    normalize(instructions, pool, body, locators);
+                }
+            }
+        }
+        Map<String, String> prints = new HashMap<>();
+        bodies.forEach((name, body) -> prints.put(name, hash(body.toByteArray())));
+        return new ClassPrint(Map.copyOf(prints), Set.copyOf(locators));
+    }
+
+    // Constant-pool entries resolved to text; index 0 and the second slot of long and double entries stay null
+    private static Object[] readPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        Object[] raw = new Object[count];
+        int[] tags = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case 1 -> raw[i] = in.readUTF();
+                case 3 -> raw[i] = "int " + in.readInt();
+                case 4 -> raw[i] = "float " + in.readFloat();
+                case 5 -> raw[i++] = "long " + in.readLong();
+                case 6 -> raw[i++] = "double " + in.readDouble();
+                case 7, 8, 16, 19, 20 -> raw[i] = new int[]{in.readUnsignedShort()};
+                case 9, 10, 11, 12, 17, 18 -> raw[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                case 15 -> raw[i] = new int[]{in.readUnsignedByte(), in.readUnsignedShort()};
+                default -> throw new IOException("Unknown constant pool tag " + tag + " at " + i);
+            }
+        }
+        Object[] pool = new Object[count];
+        for (int i = 1; i < count; i++) {
+            pool[i] = resolve(i, raw, tags);
+        }
+        return pool;
+    }
+
+    private static String resolve(int index, Object[] raw, int[] tags) {
+        Object entry = raw[index];
+        if (!(entry instanceof int[] refs)) {
+            return (String) entry;
+        }
+        return switch (tags[index]) {
+            case 8 -> "\"" + resolve(refs[0], raw, tags) + "\"";
+            case 9, 10, 11 -> resolve(refs[0], raw, tags) + "." + resolve(refs[1], raw, tags);
+            case 12 -> resolve(refs[0], raw, tags) + ":" + resolve(refs[1], raw, tags);
+            case 15 -> "handle " + refs[0] + " " + resolve(refs[1], raw, tags);
+            // Bootstrap methods are not read; the name and type identify the call site well enough
+            case 17, 18 -> "dynamic " + resolve(refs[1], raw, tags);
+            default -> resolve(refs[0], raw, tags);
+        };
+    }
+
+    // Writes each instruction as its opcode and operands, constant-pool operands as the constant they name
+    private static void normalize(byte[] code, Object[] pool, ByteArrayOutputStream out, Set<String> locators) {
+        ByteBuffer in = ByteBuffer.wrap(code);
+        String lastString = null;
+        while (in.hasRemaining()) {
+            int offset = in.position();
+            int opcode = in.get() & 0xff;
+            out.write(opcode);
+            String constant = null;
+            switch (opcode) {
+                case 0x10, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3a, 0xa9, 0xbc -> out.write(in.get());
+                case 0x11, 0x84 -> out.writeBytes(new byte[]{in.get(), in.get()});
+                case 0x12 -> constant = (String) pool[in.get() & 0xff];
+                case 0x13, 0x14, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xbb, 0xbd, 0xc0, 0xc1 ->
+                        constant = (String) pool[in.getShort() & 0xffff];
+                case 0xb9, 0xba -> {
+                    constant = (String) pool[in.getShort() & 0xffff];
+                    in.getShort();
+                }
+                case 0xc5 -> {
+                    constant = (String) pool[in.getShort() & 0xffff];
+                    out.write(in.get());
+                }
+                case 0x99, 0x9a, 0x9b, 0x9c, 0x9d, 0x9e, 0x9f, 0xa0, 0xa1, 0xa2, 0xa3, 0xa4, 0xa5, 0xa6, 0xa7, 0xa8,
+                     0xc6, 0xc7 -> out.writeBytes(new byte[]{in.get(), in.get()});
+                case 0xc8, 0xc9 -> out.writeBytes(new byte[]{in.get(), in.get(), in.get(), in.get()});
+                case 0xaa -> {
+                    in.position(in.position() + (3 - offset % 4));
+                    int low = in.getInt(in.position() + 4);
+                    int high = in.getInt(in.position() + 8);
+                    copy(in, out, 12 + 4 * (high - low + 1));
+                }
+                case 0xab -> {
+                    in.position(in.position() + (3 - offset % 4));
+                    int pairs = in.getInt(in.position() + 4);
+                    copy(in, out, 8 + 8 * pairs);
+                }
+                case 0xc4 -> {
+                    int widened = in.get() & 0xff;
+                    out.write(widened);
+                    copy(in, out, widened == 0x84 ? 4 : 2);
+                }
+                default -> {
+                    // No operands
+                }
+            }
+            if (constant != null) {
+                out.writeBytes((constant + "\n").getBytes(StandardCharsets.UTF_8));
+                // ldc "first-name"; invokestatic By.id(String) declares a locator
+                if (opcode == 0xb8 && lastString != null && constant.startsWith(BY + ".")
+                        && constant.endsWith(":(Ljava/lang/String;)L" + BY + ";")) {
+                    String factory = constant.substring(BY.length() + 1, constant.indexOf(':'));
+                    locators.add("By." + factory + ": " + lastString);
+                }
+            }
+            lastString = (opcode == 0x12 || opcode == 0x13) && constant != null && constant.startsWith("\"")
+                    ? constant.substring(1, constant.length() - 1) : null;
+        }
+    }
+
+    private static void copy(ByteBuffer in, ByteArrayOutputStream out, int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        out.writeBytes(bytes);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
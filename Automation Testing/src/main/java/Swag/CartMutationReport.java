@@ -0,0 +1,19 @@
+package Swag;
+
+/**
+ * Outcome of a batched cart change: how many buttons were clicked, whether the badge agrees with the result, and how
+ * many WebDriver commands the batch took compared to the old click-and-requery loop.
+ */
+public record CartMutationReport(String action, BatchMode mode, int clicked, int badgeCount, boolean verified,
+                                 int commandsIssued, int legacyCommands) {
+
+    public int commandsSaved() {
+        return Math.max(0, legacyCommands - commandsIssued);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s): clicked=%d, badge=%d, verified=%s, commands=%d, saved=%d",
+                action, mode, clicked, badgeCount, verified, commandsIssued, commandsSaved());
+    }
+}
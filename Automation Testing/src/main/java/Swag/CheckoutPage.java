@@ -0,0 +1,62 @@
+package Swag;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cart and checkout steps (checkout button, information form, continue, finish, completion header).
+ */
+public class CheckoutPage {
+
+    private final WebDriver driver;
+    private final FormFiller form;
+
+    // Cart and checkout locators
+    private final By checkoutButton = By.id("checkout");
+    private final By firstName = By.id("first-name");
+    private final By lastName = By.id("last-name");
+    private final By postalCode = By.id("postal-code");
+    private final By continueButton = By.id("continue");
+    private final By finishButton = By.id("finish");
+    private final By completeHeader = By.cssSelector(".complete-header");
+
+    public CheckoutPage(WebDriver driver) {
+        this.driver = driver;
+        this.form = new FormFiller(driver);
+    }
+
+    // Cart page: start the checkout
+    public void clickCheckout() {
+        StepMetrics.time("CheckoutPage.clickCheckout", () -> driver.findElement(checkoutButton).click());
+    }
+
+    // Step one: enter the customer information, in one script unless keystrokes were asked for (see FormFiller)
+    public void fillInformation(String first, String last, String postal) {
+        Map<By, String> values = new LinkedHashMap<>();
+        values.put(firstName, first);
+        values.put(lastName, last);
+        values.put(postalCode, postal);
+        StepMetrics.time("CheckoutPage.fillInformation", () -> form.fill("checkout", values));
+    }
+
+    // Step one: go on to the overview
+    public void clickContinue() {
+        StepMetrics.time("CheckoutPage.clickContinue", () -> driver.findElement(continueButton).click());
+    }
+
+    // Step two: place the order
+    public void clickFinish() {
+        StepMetrics.time("CheckoutPage.clickFinish", () -> driver.findElement(finishButton).click());
+    }
+
+    public boolean isCompleteHeaderDisplayed() {
+        return StepMetrics.time("CheckoutPage.isCompleteHeaderDisplayed", () -> driver.findElement(completeHeader).isDisplayed());
+    }
+
+    public String getCompleteHeaderText() {
+        return StepMetrics.time("CheckoutPage.getCompleteHeaderText", () -> driver.findElement(completeHeader).getText());
+    }
+}
@@ -0,0 +1,33 @@
+package Swag;
+
+/**
+ * One checkout journey, declared as data: who logs in, how many items go into the cart and what is typed into the
+ * information form. {@link ScenarioEngine} turns it into page-object calls.
+ */
+public record CheckoutScenario(String name, String user, int items, Customer customer) {
+
+    // Adds every item on the Products page instead of a fixed number
+    public static final int ALL_ITEMS = Integer.MAX_VALUE;
+
+    public record Customer(String firstName, String lastName, String postalCode) {
+    }
+
+    public CheckoutScenario {
+        if (items < 1) {
+            throw new IllegalArgumentException("A checkout needs at least one item, got " + items);
+        }
+    }
+
+    public static CheckoutScenario of(String name, String user, int items, String postalCode) {
+        return new CheckoutScenario(name, user, items, new Customer("hager", "hager", postalCode));
+    }
+
+    public boolean allItems() {
+        return items == ALL_ITEMS;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + user + ", " + (allItems() ? "all" : String.valueOf(items)) + " item(s))";
+    }
+}
@@ -0,0 +1,48 @@
+package Swag;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Times every WebDriver, WebElement, navigation and options call made through a driver decorated by
+ * {@code EventFiringDecorator}, and records it in {@link StepMetrics} as {@code cmd:<Interface>.<method>} and in the
+ * {@link EngineReport} of the engine the driver runs in.
+ */
+public class CommandTimingListener implements WebDriverListener {
+
+    // Calls can nest (e.g. a wait inside a script callback), so start times are kept on a stack
+    private final ThreadLocal<Deque<Long>> starts = ThreadLocal.withInitial(ArrayDeque::new);
+    private final BrowserEngine engine;
+
+    public CommandTimingListener(BrowserEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        starts.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method);
+    }
+
+    private void finish(Method method) {
+        Long start = starts.get().poll();
+        if (start != null) {
+            long nanos = System.nanoTime() - start;
+            StepMetrics.record("cmd:" + method.getDeclaringClass().getSimpleName() + "." + method.getName(), nanos);
+            EngineReport.recordCommand(engine, nanos);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package Swag;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.UnexpectedAlertBehaviour;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Builds ChromeDriver sessions with the options every test class used to set up by hand, and the lighter
+ * {@link BrowserEngine engines} non-visual tests can run in.
+ */
+public class DriverFactory {
+
+    // The viewport of every engine that has no real window
+    public static final Dimension HEADLESS_VIEWPORT = new Dimension(1366, 768);
+
+    // HtmlUnit is an optional dependency (-Phtmlunit), so it is only loaded when that engine is asked for
+    private static final String HTMLUNIT_DRIVER = "org.openqa.selenium.htmlunit.HtmlUnitDriver";
+
+    private static final Map<BrowserEngine, CommandTimingListener> COMMAND_TIMING = new EnumMap<>(BrowserEngine.class);
+    private static final ImpactRecorder IMPACT = new ImpactRecorder();
+
+    static {
+        for (BrowserEngine engine : BrowserEngine.values()) {
+            COMMAND_TIMING.put(engine, new CommandTimingListener(engine));
+        }
+    }
+
+    private DriverFactory() {
+    }
+
+    public static ChromeOptions defaultOptions() {
+        ChromeOptions options = new ChromeOptions();
+        Map<String, Object> prefs = new HashMap<>();
+        // Disable Chrome password save/change prompts
+        prefs.put("credentials_enable_service", false);
+        prefs.put("profile.password_manager_enabled", false);
+        // Block site notifications
+        prefs.put("profile.default_content_setting_values.notifications", 2);
+        options.setExperimentalOption("prefs", prefs);
+        // Dismiss any unexpected JS alerts/prompts to avoid interrupting tests
+        options.setCapability(CapabilityType.UNHANDLED_PROMPT_BEHAVIOUR, UnexpectedAlertBehaviour.DISMISS);
+        options.addArguments("--disable-notifications");
+        // Keep the console output so it can be attached to failures
+        LoggingPreferences logs = new LoggingPreferences();
+        logs.enable(LogType.BROWSER, Level.ALL);
+        options.setCapability(ChromeOptions.LOGGING_PREFS, logs);
+        return options;
+    }
+
+    // Same options without a window and with a fixed viewport, so runs on different machines are comparable
+    public static ChromeOptions headlessOptions() {
+        ChromeOptions options = defaultOptions();
+        options.addArguments("--headless=new",
+                "--window-size=" + HEADLESS_VIEWPORT.getWidth() + "," + HEADLESS_VIEWPORT.getHeight());
+        return options;
+    }
+
+    // Launch a new maximized browser; while metrics are on, every command it sends is timed
+    public static WebDriver create() {
+        return create(BrowserEngine.CHROME);
+    }
+
+    // Launch a headless browser with the fixed viewport of headlessOptions()
+    public static WebDriver createHeadless() {
+        return create(BrowserEngine.HEADLESS);
+    }
+
+    public static WebDriver create(BrowserEngine engine) {
+        return switch (engine) {
+            case CHROME -> launch(engine, () -> {
+                WebDriver chrome = new ChromeDriver(defaultOptions());
+                chrome.manage().window().maximize();
+                return chrome;
+            });
+            case HEADLESS -> launch(engine, () -> new ChromeDriver(headlessOptions()));
+            case HTMLUNIT -> launch(engine, () -> {
+                WebDriver htmlUnit = newHtmlUnitDriver();
+                htmlUnit.manage().window().setSize(HEADLESS_VIEWPORT);
+                return htmlUnit;
+            });
+        };
+    }
+
+    private static WebDriver launch(BrowserEngine engine, Supplier<WebDriver> starter) {
+        long start = System.nanoTime();
+        WebDriver driver = StepMetrics.time("driver.launch", starter);
+        EngineReport.recordLaunch(engine, System.nanoTime() - start);
+        return decorate(engine, driver);
+    }
+
+    // While metrics are on, time every command the driver sends; in incremental mode, record what each test touches
+    static WebDriver decorate(BrowserEngine engine, WebDriver driver) {
+        List<WebDriverListener> listeners = new ArrayList<>();
+        if (StepMetrics.enabled()) {
+            listeners.add(COMMAND_TIMING.get(engine));
+        }
+        if (TestImpact.enabled()) {
+            listeners.add(IMPACT);
+        }
+        return listeners.isEmpty() ? driver
+                : new EventFiringDecorator<>(listeners.toArray(WebDriverListener[]::new)).decorate(driver);
+    }
+
+    // HtmlUnitDriver with JavaScript on; the pages under test build their cart and menu with scripts
+    private static WebDriver newHtmlUnitDriver() {
+        try {
+            return (WebDriver) Class.forName(HTMLUNIT_DRIVER).getConstructor(boolean.class).newInstance(true);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("The htmlunit engine needs HtmlUnitDriver on the classpath; run with -Phtmlunit", e);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not start HtmlUnitDriver", e);
+        }
+    }
+}
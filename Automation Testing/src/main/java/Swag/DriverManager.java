@@ -0,0 +1,69 @@
+package Swag;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Per-thread driver registry. Each test thread leases its own session from the {@link DriverPool} of the
+ * {@link BrowserEngine} selected for its test, so test methods and DataProvider rows can run concurrently without
+ * sharing a browser.
+ */
+public class DriverManager {
+
+    private static final ThreadLocal<PooledDriver> SESSION = new ThreadLocal<>();
+
+    private DriverManager() {
+    }
+
+    // Lease a browser for the current thread (reuses the one already leased, if any)
+    public static WebDriver start() {
+        PooledDriver session = SESSION.get();
+        if (session == null) {
+            session = DriverPool.of(BrowserEngine.selected()).lease();
+            SESSION.set(session);
+            // Count traffic from zero under the default policy; NetworkListener reports it per test method
+            session.network().resetCounters();
+            session.network().apply(NetworkPolicy.fromSystemProperty());
+        }
+        return session.driver();
+    }
+
+    public static WebDriver getDriver() {
+        PooledDriver session = SESSION.get();
+        if (session == null) {
+            throw new IllegalStateException("No driver started on thread " + Thread.currentThread().getName());
+        }
+        return session.driver();
+    }
+
+    // The pooled session behind the current thread's browser, or null
+    static PooledDriver currentSession() {
+        return SESSION.get();
+    }
+
+    public static boolean hasDriver() {
+        return SESSION.get() != null;
+    }
+
+    // Switch the network policy of the current thread's browser, if it is the given driver
+    public static void useNetworkPolicy(WebDriver driver, NetworkPolicy policy) {
+        PooledDriver session = SESSION.get();
+        if (session != null && session.driver() == driver) {
+            session.network().apply(policy);
+        }
+    }
+
+    // The page tracer of the current thread's browser, if it is the given driver; one that measures nothing otherwise
+    public static PageTracer tracer(WebDriver driver) {
+        PooledDriver session = SESSION.get();
+        return session != null && session.driver() == driver ? session.tracer() : PageTracer.inactive();
+    }
+
+    // Hand the current thread's browser back to the pool
+    public static void stop() {
+        PooledDriver session = SESSION.get();
+        SESSION.remove();
+        if (session != null) {
+            session.pool().release(session);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package Swag;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps warm browser sessions around so tests lease an already running Chrome instead of launching a new one.
+ * Sessions are reset in place when they are released (extra windows closed, then {@link AppState}: sidebar reset,
+ * cookies, storage, back to the login page) and are evicted, i.e. relaunched on a later lease, when that reset
+ * cannot be verified, when they stop responding, get too old or have served too many leases.
+ *
+ * Tuned with the system properties {@code swag.pool.size}, {@code swag.pool.maxAgeSeconds},
+ * {@code swag.pool.maxLeases} and {@code swag.pool.leaseTimeoutSeconds}. There is one pool per
+ * {@link BrowserEngine}, created when a test first asks for that engine, each with these settings.
+ */
+public class DriverPool {
+
+    private static final Map<BrowserEngine, DriverPool> POOLS = new ConcurrentHashMap<>();
+
+    private static final Thread SHUTDOWN_HOOK = new Thread(() -> POOLS.values().forEach(DriverPool::shutdown),
+            "driver-pool-shutdown");
+
+    static {
+        Runtime.getRuntime().addShutdownHook(SHUTDOWN_HOOK);
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final Duration maxAge;
+    private final int maxLeases;
+    private final Duration leaseTimeout;
+    private final Supplier<WebDriver> launcher;
+
+    // Idle sessions, most recently released first so the warmest browser is reused
+    private final LinkedBlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledDriver> live = ConcurrentHashMap.newKeySet();
+    // One permit per browser that may still be launched
+    private final Semaphore capacity;
+
+    // Statistics
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder launches = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder resetNanos = new LongAdder();
+    private final LongAdder resetFailures = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public DriverPool(String name, int maxSize, Duration maxAge, int maxLeases, Duration leaseTimeout,
+                      Supplier<WebDriver> launcher) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1 but was " + maxSize);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.maxLeases = maxLeases;
+        this.leaseTimeout = leaseTimeout;
+        this.launcher = launcher;
+        this.capacity = new Semaphore(maxSize);
+    }
+
+    // The pool of the default engine (swag.engine)
+    public static DriverPool shared() {
+        return of(BrowserEngine.defaultEngine());
+    }
+
+    public static DriverPool of(BrowserEngine engine) {
+        return POOLS.computeIfAbsent(engine, e -> new DriverPool(
+                e.id(),
+                Integer.getInteger("swag.pool.size", ParallelSuiteListener.threadCount()),
+                Duration.ofSeconds(Long.getLong("swag.pool.maxAgeSeconds", 600)),
+                Integer.getInteger("swag.pool.maxLeases", 50),
+                Duration.ofSeconds(Long.getLong("swag.pool.leaseTimeoutSeconds", 120)),
+                e::launch));
+    }
+
+    // Every engine's pool created so far
+    public static Collection<DriverPool> all() {
+        return List.copyOf(POOLS.values());
+    }
+
+    // The idle browsers of every pool, by engine id, taken out without quitting them (see HotRunner)
+    public static Map<String, List<WebDriver>> drainAll() {
+        Map<String, List<WebDriver>> drained = new HashMap<>();
+        POOLS.forEach((engine, pool) -> drained.put(engine.id(), pool.drainIdle()));
+        return drained;
+    }
+
+    // Take over browsers drained from the pools of another class loader
+    public static void adoptAll(Map<String, List<WebDriver>> drivers) {
+        drivers.forEach((id, list) -> {
+            BrowserEngine engine = BrowserEngine.fromName(id);
+            list.forEach(driver -> of(engine).adopt(DriverFactory.decorate(engine, driver)));
+        });
+    }
+
+    // Quit what is left in every pool now instead of at exit (see HotRunner#closeLoader)
+    static void closeAll() {
+        Runtime.getRuntime().removeShutdownHook(SHUTDOWN_HOOK);
+        POOLS.values().forEach(DriverPool::shutdown);
+    }
+
+    // Hand out a healthy session, reusing an idle one when possible and launching a new one otherwise
+    public PooledDriver lease() {
+        long start = System.nanoTime();
+        long deadline = start + leaseTimeout.toNanos();
+        PooledDriver session = null;
+        boolean warm = false;
+        while (session == null) {
+            PooledDriver candidate = idle.pollFirst();
+            if (candidate == null && capacity.tryAcquire()) {
+                session = launch();
+                break;
+            }
+            if (candidate == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("No pooled driver became available within " + leaseTimeout);
+                }
+                try {
+                    candidate = idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a pooled driver", e);
+                }
+                if (candidate == null) {
+                    continue;
+                }
+            }
+            if (isReusable(candidate) && isHealthy(candidate)) {
+                session = candidate;
+                warm = true;
+            } else {
+                evict(candidate);
+            }
+        }
+        session.markLeased();
+        leases.increment();
+        if (warm) {
+            hits.increment();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return session;
+    }
+
+    // Return a session to the pool after resetting it, or evict it when it cannot be reused
+    public void release(PooledDriver session) {
+        if (session == null) {
+            return;
+        }
+        boolean reusable;
+        try {
+            reusable = isReusable(session) && reset(session);
+        } catch (RuntimeException | Error e) {
+            // E.g. a BudgetExceededError from a step of the reset: the browser's state is unknown, but its permit is not
+            evict(session);
+            throw e;
+        }
+        if (!reusable) {
+            evict(session);
+            return;
+        }
+        idle.offerFirst(session);
+    }
+
+    // Quit a session instead of returning it, e.g. after a test left the browser in an unknown state
+    public void discard(PooledDriver session) {
+        if (session != null) {
+            evict(session);
+        }
+    }
+
+    public void shutdown() {
+        PooledDriver session;
+        while ((session = idle.pollFirst()) != null) {
+            evict(session);
+        }
+        for (PooledDriver leased : new ArrayList<>(live)) {
+            evict(leased);
+        }
+    }
+
+    public double hitRate() {
+        long total = leases.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    public double averageWaitMillis() {
+        long total = leases.sum();
+        return total == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / total;
+    }
+
+    public double averageResetMillis() {
+        long total = resets.sum();
+        return total == 0 ? 0 : resetNanos.sum() / 1_000_000.0 / total;
+    }
+
+    public String report() {
+        return String.format(
+                "Driver pool (%s): size=%d, leases=%d, hits=%d, hit rate=%.1f%%, launches=%d, evictions=%d, "
+                        + "resets=%d, avg reset=%.1f ms, reset failures=%d, avg lease wait=%.1f ms, max lease wait=%.1f ms",
+                name, maxSize, leases.sum(), hits.sum(), hitRate() * 100, launches.sum(), evictions.sum(),
+                resets.sum(), averageResetMillis(), resetFailures.sum(), averageWaitMillis(),
+                maxWaitNanos.get() / 1_000_000.0);
+    }
+
+    private List<WebDriver> drainIdle() {
+        List<WebDriver> drivers = new ArrayList<>();
+        PooledDriver session;
+        while ((session = idle.pollFirst()) != null) {
+            if (live.remove(session)) {
+                capacity.release();
+                session.network().close();
+                drivers.add(session.driver() instanceof WrapsDriver wrapper ? wrapper.getWrappedDriver() : session.driver());
+            }
+        }
+        return drivers;
+    }
+
+    private void adopt(WebDriver driver) {
+        if (!capacity.tryAcquire()) {
+            driver.quit();
+            return;
+        }
+        PooledDriver session = new PooledDriver(driver, this);
+        live.add(session);
+        idle.offerFirst(session);
+    }
+
+    private PooledDriver launch() {
+        try {
+            PooledDriver session = new PooledDriver(launcher.get(), this);
+            live.add(session);
+            launches.increment();
+            return session;
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    private boolean isReusable(PooledDriver session) {
+        return session.ageNanos() < maxAge.toNanos() && session.leaseCount() < maxLeases;
+    }
+
+    private boolean isHealthy(PooledDriver session) {
+        try {
+            session.driver().getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    // Bring the browser back to a clean login page inside the same session; false when it could not be verified
+    private boolean reset(PooledDriver session) {
+        WebDriver driver = session.driver();
+        long start = System.nanoTime();
+        try {
+            // Close any extra tabs or windows the test opened
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            for (int i = 1; i < handles.size(); i++) {
+                driver.switchTo().window(handles.get(i)).close();
+            }
+            driver.switchTo().window(handles.get(0));
+
+            if (new AppState(driver).resetToLoginPage()) {
+                return true;
+            }
+        } catch (WebDriverException e) {
+            // Counted as a failed reset below
+        } finally {
+            resets.increment();
+            resetNanos.add(System.nanoTime() - start);
+        }
+        resetFailures.increment();
+        return false;
+    }
+
+    private void evict(PooledDriver session) {
+        if (!live.remove(session)) {
+            return;
+        }
+        evictions.increment();
+        capacity.release();
+        session.network().close();
+        try {
+            session.driver().quit();
+        } catch (WebDriverException ignored) {
+            // The browser is already gone
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package Swag;
+
+import org.testng.IConfigurationListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.Arrays;
+
+/**
+ * Selects the {@link BrowserEngine} of each test method's groups on its thread, already during its
+ * {@code @BeforeMethod}, where the browser is leased.
+ */
+public class EngineListener implements IConfigurationListener, IInvokedMethodListener {
+
+    @Override
+    public void beforeConfiguration(ITestResult configResult, ITestNGMethod testMethod) {
+        if (testMethod != null && configResult.getMethod().isBeforeMethodConfiguration()) {
+            BrowserEngine.select(engineFor(testMethod));
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            BrowserEngine.select(engineFor(testResult.getMethod()));
+        }
+    }
+
+    static BrowserEngine engineFor(ITestNGMethod method) {
+        return BrowserEngine.forGroups(Arrays.asList(method.getGroups()), method.getXmlTest().getAllParameters());
+    }
+}
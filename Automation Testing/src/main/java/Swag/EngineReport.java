@@ -0,0 +1,64 @@
+package Swag;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Start-up and per-command latency of each {@link BrowserEngine}, so the engines can be compared on the same suite.
+ * Launches are always timed; commands only while {@link StepMetrics} is enabled, because that is when drivers are
+ * decorated with a {@link CommandTimingListener}.
+ */
+public class EngineReport {
+
+    private static final Map<BrowserEngine, LatencyHistogram> LAUNCHES = new EnumMap<>(BrowserEngine.class);
+    private static final Map<BrowserEngine, LatencyHistogram> COMMANDS = new EnumMap<>(BrowserEngine.class);
+
+    static {
+        for (BrowserEngine engine : BrowserEngine.values()) {
+            LAUNCHES.put(engine, new LatencyHistogram());
+            COMMANDS.put(engine, new LatencyHistogram());
+        }
+    }
+
+    private EngineReport() {
+    }
+
+    public static void recordLaunch(BrowserEngine engine, long nanos) {
+        LAUNCHES.get(engine).recordNanos(nanos);
+    }
+
+    public static void recordCommand(BrowserEngine engine, long nanos) {
+        COMMANDS.get(engine).recordNanos(nanos);
+    }
+
+    public static LatencyHistogram launches(BrowserEngine engine) {
+        return LAUNCHES.get(engine);
+    }
+
+    public static LatencyHistogram commands(BrowserEngine engine) {
+        return COMMANDS.get(engine);
+    }
+
+    public static boolean isEmpty() {
+        return LAUNCHES.values().stream().allMatch(h -> h.count() == 0);
+    }
+
+    // One line per engine that launched at least one browser
+    public static String summary() {
+        StringBuilder out = new StringBuilder("Browser engines (ms):");
+        for (BrowserEngine engine : BrowserEngine.values()) {
+            LatencyHistogram launches = LAUNCHES.get(engine);
+            if (launches.count() == 0) {
+                continue;
+            }
+            LatencyHistogram commands = COMMANDS.get(engine);
+            out.append(String.format(Locale.ROOT,
+                    "%n  %-9s launches=%-3d launch p50=%8.1f max=%8.1f | commands=%-6d p50=%7.2f p95=%7.2f p99=%7.2f",
+                    engine.id(), launches.count(), launches.percentileMillis(50), launches.maxMillis(),
+                    commands.count(), commands.percentileMillis(50), commands.percentileMillis(95),
+                    commands.percentileMillis(99)));
+        }
+        return out.toString();
+    }
+}
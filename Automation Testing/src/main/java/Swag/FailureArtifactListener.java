@@ -0,0 +1,39 @@
+package Swag;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.time.Duration;
+
+/**
+ * Grabs screenshot, page source and console log when a test fails, while its browser is still on the failing page
+ * (TestNG calls this before {@code @AfterMethod}), and leaves the writing to {@link ArtifactWriter}.
+ * {@code -Dswag.artifacts=false} turns capturing off.
+ */
+public class FailureArtifactListener implements ITestListener, ISuiteListener {
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        if (!ArtifactWriter.enabled() || !DriverManager.hasDriver()) {
+            return;
+        }
+        FailureArtifacts artifacts = FailureArtifacts.capture(DriverManager.getDriver(),
+                ShardListener.unit(result.getMethod(), result.getParameters()), TestContext.user(), result.getThrowable());
+        ArtifactWriter.shared().submit(artifacts);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!ArtifactWriter.enabled()) {
+            return;
+        }
+        ArtifactWriter writer = ArtifactWriter.shared();
+        if (writer.submittedCount() == 0) {
+            return;
+        }
+        writer.awaitIdle(Duration.ofSeconds(30));
+        System.out.println(writer.report());
+    }
+}
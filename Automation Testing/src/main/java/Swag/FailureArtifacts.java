@@ -0,0 +1,52 @@
+package Swag;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Raw evidence of a failed test, grabbed from the browser as-is: the PNG bytes the driver returns, the page source
+ * and the console log. Nothing is encoded or written here; that is {@link ArtifactWriter}'s job.
+ */
+public record FailureArtifacts(String test, String user, long capturedAtMillis, String url, byte[] screenshot,
+                               String pageSource, List<String> consoleLog, String failure) {
+
+    public static FailureArtifacts capture(WebDriver driver, String test, String user, Throwable failure) {
+        long now = System.currentTimeMillis();
+        String url = "";
+        byte[] screenshot = new byte[0];
+        String source = "";
+        List<String> console = new ArrayList<>();
+        // Each piece on its own: a dead page may still give a screenshot, a dead session gives nothing
+        try {
+            url = driver.getCurrentUrl();
+        } catch (WebDriverException ignored) {
+            // Keep going with whatever else can be read
+        }
+        try {
+            screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (WebDriverException | ClassCastException ignored) {
+            // No screenshot for this failure
+        }
+        try {
+            source = driver.getPageSource();
+        } catch (WebDriverException ignored) {
+            // No DOM for this failure
+        }
+        try {
+            for (LogEntry entry : driver.manage().logs().get(LogType.BROWSER)) {
+                console.add(entry.toString());
+            }
+        } catch (WebDriverException ignored) {
+            // The driver does not expose browser logs
+        }
+        return new FailureArtifacts(test, user, now, url == null ? "" : url, screenshot, source == null ? "" : source,
+                List.copyOf(console), failure == null ? "" : failure.toString());
+    }
+}
@@ -0,0 +1,154 @@
+package Swag;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills login and checkout forms. The scripted fast path sets every field in one script round trip instead of one
+ * {@code findElement} and one {@code sendKeys} per field: it calls the native {@code value} setter of
+ * {@code HTMLInputElement} (React replaces the setter on the element itself, so assigning {@code el.value} would
+ * not be seen by the component) and then dispatches {@code input} and {@code change}, which React turns into the
+ * {@code onChange} the controlled input listens to. Fields the script cannot find or that do not keep their value
+ * are typed for real.
+ *
+ * {@code -Dswag.form.fidelity} picks the path: {@code scripted} (default), {@code keystrokes} for runs where typing
+ * itself is under test, or {@code compare}, which alternates the two so that {@link #report()} can show what the
+ * fast path saves. A page object can also ask for keystrokes for one form.
+ */
+public class FormFiller {
+
+    public enum Fidelity { SCRIPTED, KEYSTROKES, COMPARE }
+
+    private static final String FILL = """
+            const rejected = [];
+            for (const [selector, value] of Object.entries(arguments[0])) {
+              const el = document.querySelector(selector);
+              if (!el) { rejected.push(selector); continue; }
+              const prototype = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;
+              el.focus();
+              Object.getOwnPropertyDescriptor(prototype, 'value').set.call(el, value);
+              el.dispatchEvent(new Event('input', {bubbles: true}));
+              el.dispatchEvent(new Event('change', {bubbles: true}));
+              el.blur();
+              if (el.value !== value) rejected.push(selector);
+            }
+            return rejected;
+            """;
+
+    private static final Fidelity DEFAULT = Fidelity.valueOf(
+            System.getProperty("swag.form.fidelity", "scripted").toUpperCase(Locale.ROOT));
+    private static final AtomicLong FILLS = new AtomicLong();
+    private static final AtomicLong FALLBACK_FIELDS = new AtomicLong();
+    // Fill latency per form, for the scripted and the keystroke path
+    private static final Map<String, Map<Fidelity, LatencyHistogram>> LATENCY = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final Fidelity fidelity;
+
+    public FormFiller(WebDriver driver) {
+        this(driver, DEFAULT);
+    }
+
+    public FormFiller(WebDriver driver, Fidelity fidelity) {
+        this.driver = driver;
+        this.fidelity = fidelity;
+    }
+
+    // Fill the fields in the order given; form names the form in the report
+    public void fill(String form, Map<By, String> values) {
+        long fill = FILLS.getAndIncrement();
+        Fidelity path = fidelity;
+        if (path == Fidelity.COMPARE) {
+            path = fill % 2 == 0 ? Fidelity.SCRIPTED : Fidelity.KEYSTROKES;
+        }
+        if (!(driver instanceof JavascriptExecutor)) {
+            path = Fidelity.KEYSTROKES;
+        }
+        long start = System.nanoTime();
+        if (path == Fidelity.SCRIPTED) {
+            fillScripted(values);
+        } else {
+            values.forEach(this::type);
+        }
+        LATENCY.computeIfAbsent(form, f -> {
+            Map<Fidelity, LatencyHistogram> byPath = new EnumMap<>(Fidelity.class);
+            byPath.put(Fidelity.SCRIPTED, new LatencyHistogram());
+            byPath.put(Fidelity.KEYSTROKES, new LatencyHistogram());
+            return byPath;
+        }).get(path).recordNanos(System.nanoTime() - start);
+    }
+
+    public static boolean isEmpty() {
+        return FILLS.get() == 0;
+    }
+
+    // Median fill time per form and path, and how much the script saves where both were measured
+    public static String report() {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                "Form fills: %d (fidelity %s), fields typed after the script missed them=%d",
+                FILLS.get(), DEFAULT.name().toLowerCase(Locale.ROOT), FALLBACK_FIELDS.get()));
+        LATENCY.forEach((form, byPath) -> {
+            LatencyHistogram scripted = byPath.get(Fidelity.SCRIPTED);
+            LatencyHistogram typed = byPath.get(Fidelity.KEYSTROKES);
+            out.append(String.format(Locale.ROOT, "%n  %-10s scripted n=%d p50=%.1f ms | keystrokes n=%d p50=%.1f ms",
+                    form, scripted.count(), scripted.percentileMillis(50), typed.count(), typed.percentileMillis(50)));
+            if (scripted.count() > 0 && typed.count() > 0) {
+                out.append(String.format(Locale.ROOT, " | saved %.1f ms per fill",
+                        typed.percentileMillis(50) - scripted.percentileMillis(50)));
+            }
+        });
+        return out.toString();
+    }
+
+    private void fillScripted(Map<By, String> values) {
+        Map<String, String> bySelector = new LinkedHashMap<>();
+        Map<String, By> locators = new LinkedHashMap<>();
+        List<By> typed = new ArrayList<>();
+        values.forEach((by, value) -> {
+            String selector = cssSelector(by);
+            if (selector == null) {
+                typed.add(by);
+            } else {
+                bySelector.put(selector, value);
+                locators.put(selector, by);
+            }
+        });
+        Object rejected = ((JavascriptExecutor) driver).executeScript(FILL, bySelector);
+        if (rejected instanceof List<?> selectors) {
+            selectors.forEach(s -> typed.add(locators.get(String.valueOf(s))));
+        }
+        FALLBACK_FIELDS.addAndGet(typed.size());
+        for (By by : typed) {
+            driver.findElement(by).clear();
+            type(by, values.get(by));
+        }
+    }
+
+    private void type(By by, String value) {
+        driver.findElement(by).sendKeys(value);
+    }
+
+    // A CSS selector for id, name and CSS locators, or null for the ones the script cannot resolve
+    static String cssSelector(By by) {
+        if (!(by instanceof By.Remotable remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = remotable.getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        return switch (parameters.using()) {
+            case "id", "name" -> "[" + parameters.using() + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"]";
+            case "css selector" -> value;
+            default -> null;
+        };
+    }
+}
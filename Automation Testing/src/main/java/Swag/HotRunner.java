@@ -0,0 +1,312 @@
+package Swag;
+
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.SuiteXmlParser;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Long-lived test runner for local iteration. It keeps the JVM, TestNG, the resolved chromedriver and the
+ * {@link DriverPool}s warm, and runs one test class or method per request from {@link HotRunnerClient} (or any
+ * line-based socket client), streaming a line per result back. Framework and test classes are loaded from
+ * {@code swag.hot.classes} (default {@code target/classes,target/test-classes}) by a fresh class loader whenever a
+ * class there changed, so a re-compile ({@code mvn test-compile}) is picked up by the next run. The idle browsers of
+ * the previous loader's pools are handed over to the new one ({@link DriverPool#drainAll()}), so a reload does not
+ * launch browsers either; the services the previous loader started are stopped ({@link #closeLoader()}).
+ *
+ * {@code mvn test-compile exec:java -Phot}, then {@code java -cp target/classes Swag.HotRunnerClient
+ * ProductsPageTest#verifyProductsTitle}. At start-up it launches {@code swag.hot.warm} (default 1) browsers of each
+ * {@link BrowserEngine} listed in {@code swag.hot.engines} (default: the default engine). The parallel mode and
+ * parameters of a run are those of the {@code <test>} in testng.xml that lists the class.
+ *
+ * Listens on localhost port {@code swag.hot.port} (default 7878). The protocol is one request line,
+ * {@code run <class>[#<method>]} or {@code stop}, answered by {@code PASS|FAIL|SKIP <test> <ms> [reason]} lines and
+ * a closing {@code DONE} line.
+ */
+public class HotRunner {
+
+    public static final int DEFAULT_PORT = 7878;
+
+    /** Child-first over the class directories, so a new loader sees re-compiled classes. */
+    static final class ReloadingClassLoader extends URLClassLoader {
+
+        ReloadingClassLoader(List<Path> directories, ClassLoader parent) throws IOException {
+            super(urls(directories), parent);
+        }
+
+        private static URL[] urls(List<Path> directories) throws IOException {
+            URL[] urls = new URL[directories.size()];
+            for (int i = 0; i < urls.length; i++) {
+                urls[i] = directories.get(i).toUri().toURL();
+            }
+            return urls;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    try {
+                        type = findClass(name);
+                    } catch (ClassNotFoundException e) {
+                        return super.loadClass(name, resolve);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(type);
+                }
+                return type;
+            }
+        }
+
+        @Override
+        public URL getResource(String name) {
+            URL own = findResource(name);
+            return own != null ? own : super.getResource(name);
+        }
+
+        // Only these directories' copies when they have one, so the test listeners are not registered twice
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            Enumeration<URL> own = findResources(name);
+            return own.hasMoreElements() ? own : getParent().getResources(name);
+        }
+    }
+
+    private final List<Path> classes;
+    private final String suiteXml;
+    private ReloadingClassLoader loader;
+    private long loadedVersion = -1;
+    private int reloads;
+
+    public HotRunner(List<Path> classes, String suiteXml) {
+        this.classes = classes;
+        this.suiteXml = suiteXml;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("swag.hot.port", DEFAULT_PORT);
+        List<Path> classes = Stream.of(System.getProperty("swag.hot.classes", "target/classes,target/test-classes")
+                .split(",")).map(String::trim).map(Path::of).toList();
+        HotRunner runner = new HotRunner(classes, args.length > 0 ? args[0] : "src/test/resources/testng.xml");
+        for (String engine : System.getProperty("swag.hot.engines", BrowserEngine.defaultEngine().id()).split(",")) {
+            runner.warmUp(BrowserEngine.fromName(engine), Integer.getInteger("swag.hot.warm", 1));
+        }
+        try (ServerSocket server = new ServerSocket(port, 16, InetAddress.getLoopbackAddress())) {
+            System.out.println("Hot runner listening on localhost:" + port);
+            while (true) {
+                try (Socket client = server.accept()) {
+                    if (!runner.serve(client)) {
+                        break;
+                    }
+                } catch (IOException | UncheckedIOException e) {
+                    System.out.println("Hot runner: client went away (" + e.getMessage() + ")");
+                }
+            }
+        }
+        // The shutdown hooks of every loader's DriverPool quit the browsers
+        System.exit(0);
+    }
+
+    // Launch browsers up front so that even the first run leases a warm one
+    void warmUp(BrowserEngine engine, int sessions) {
+        List<PooledDriver> leased = new ArrayList<>();
+        DriverPool pool = DriverPool.of(engine);
+        try {
+            for (int i = 0; i < sessions; i++) {
+                leased.add(pool.lease());
+            }
+        } catch (RuntimeException e) {
+            // The runs will launch (and report) it themselves
+            System.out.println("Hot runner: could not warm up " + engine.id() + " (" + e.getMessage() + ")");
+        }
+        leased.forEach(pool::release);
+    }
+
+    // One request; false when the client asked the runner to stop
+    boolean serve(Socket client) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8);
+        String request = in.readLine();
+        if (request == null) {
+            return true;
+        }
+        request = request.trim();
+        if (request.equals("stop")) {
+            out.println("DONE stopped");
+            return false;
+        }
+        if (!request.startsWith("run ")) {
+            out.println("DONE error: expected 'run <class>[#<method>]' or 'stop' but got '" + request + "'");
+            return true;
+        }
+        run(request.substring("run ".length()).trim(), out);
+        return true;
+    }
+
+    // Run a class or one method of it, streaming the results to out
+    synchronized void run(String target, PrintWriter out) {
+        long start = System.nanoTime();
+        String className = target.contains("#") ? target.substring(0, target.indexOf('#')) : target;
+        String method = target.contains("#") ? target.substring(target.indexOf('#') + 1) : null;
+        if (!className.contains(".")) {
+            className = "Swag." + className;
+        }
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        try {
+            ReloadingClassLoader classes = classLoader();
+            Class<?> testClass = classes.loadClass(className);
+            Thread.currentThread().setContextClassLoader(classes);
+
+            int[] counts = new int[3];
+            TestNG testng = new TestNG(false);
+            testng.setServiceLoaderClassLoader(classes);
+            testng.setOutputDirectory(Path.of(System.getProperty("swag.hot.outputDir", "target/hot-runner")).toString());
+            testng.setVerbose(0);
+            testng.setXmlSuites(List.of(suite(testClass, method)));
+            testng.addListener(new ITestListener() {
+                @Override
+                public void onTestSuccess(ITestResult result) {
+                    report("PASS", result, counts, 0);
+                }
+
+                @Override
+                public void onTestFailure(ITestResult result) {
+                    report("FAIL", result, counts, 1);
+                }
+
+                @Override
+                public void onTestSkipped(ITestResult result) {
+                    report("SKIP", result, counts, 2);
+                }
+
+                private void report(String status, ITestResult result, int[] counts, int index) {
+                    synchronized (out) {
+                        counts[index]++;
+                        String reason = result.getThrowable() == null ? "" : " " + firstLine(result.getThrowable());
+                        out.println(String.format(Locale.ROOT, "%s %s %d ms%s", status, ShardListener.unit(
+                                result.getMethod(), result.getParameters()), result.getEndMillis() - result.getStartMillis(),
+                                reason));
+                    }
+                }
+            });
+            testng.run();
+            out.println(String.format(Locale.ROOT, "DONE passed=%d failed=%d skipped=%d in %d ms (class loader reloads=%d)",
+                    counts[0], counts[1], counts[2], (System.nanoTime() - start) / 1_000_000, reloads));
+        } catch (ClassNotFoundException e) {
+            out.println("DONE error: no test class " + className + " in " + classes);
+        } catch (IOException | ReflectiveOperationException e) {
+            out.println("DONE error: " + e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+
+    // A new loader when any class changed since the last run, taking over the browsers of the previous one
+    private ReloadingClassLoader classLoader() throws IOException, ReflectiveOperationException {
+        long version = 0;
+        for (Path directory : classes) {
+            version = version * 31 + version(directory);
+        }
+        if (loader == null || version != loadedVersion) {
+            ClassLoader previous = loader == null ? HotRunner.class.getClassLoader() : loader;
+            ReloadingClassLoader next = new ReloadingClassLoader(classes, HotRunner.class.getClassLoader());
+            Object drivers = previous.loadClass(DriverPool.class.getName()).getMethod("drainAll").invoke(null);
+            next.loadClass(DriverPool.class.getName()).getMethod("adoptAll", Map.class).invoke(null, drivers);
+            if (loader != null) {
+                loader.loadClass(HotRunner.class.getName()).getMethod("closeLoader").invoke(null);
+                loader.close();
+                reloads++;
+            }
+            loader = next;
+            loadedVersion = version;
+        }
+        return loader;
+    }
+
+    // Run on the copy of this class in a loader that is being replaced: stops the services its statics started and
+    // removes their shutdown hooks, which would otherwise keep the whole loader (and swag.local.port) alive
+    public static void closeLoader() {
+        StandInServer.closeShared();
+        ArtifactWriter.closeShared();
+        ResourceSampler.close();
+        DriverPool.closeAll();
+    }
+
+    private XmlSuite suite(Class<?> testClass, String method) throws IOException {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Hot run");
+        XmlTest test = new XmlTest(suite);
+        test.setName(testClass.getSimpleName());
+        suite.setParallel(XmlSuite.ParallelMode.METHODS);
+        // Same engine parameters, parallel mode and instance grouping as in the full suite
+        XmlSuite full;
+        try (InputStream in = Files.newInputStream(Path.of(suiteXml))) {
+            full = new SuiteXmlParser().parse(suiteXml, in, false);
+        }
+        suite.setParameters(full.getParameters());
+        for (XmlTest template : full.getTests()) {
+            if (template.getXmlClasses().stream().anyMatch(c -> c.getName().equals(testClass.getName()))) {
+                test.setParameters(template.getLocalParameters());
+                test.setParallel(template.getParallel());
+                test.setGroupByInstances(template.getGroupByInstances());
+            }
+        }
+        XmlClass xmlClass = new XmlClass(testClass, false);
+        if (method != null) {
+            xmlClass.setIncludedMethods(List.of(new XmlInclude(method)));
+        }
+        test.setXmlClasses(new ArrayList<>(List.of(xmlClass)));
+        return suite;
+    }
+
+    // Newest modification time and number of files, which changes with every compile that touches a class
+    static long version(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Long> stamps = files.filter(Files::isRegularFile).map(f -> {
+                try {
+                    return Files.getLastModifiedTime(f).toMillis();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toList();
+            return (stamps.isEmpty() ? 0 : Collections.max(stamps)) * 31 + stamps.size();
+        }
+    }
+
+    private static String firstLine(Throwable failure) {
+        String message = String.valueOf(failure.getMessage());
+        int newline = message.indexOf('\n');
+        return failure.getClass().getSimpleName() + ": " + (newline < 0 ? message : message.substring(0, newline));
+    }
+}
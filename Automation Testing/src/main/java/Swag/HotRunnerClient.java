@@ -0,0 +1,50 @@
+package Swag;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thin client of {@link HotRunner}: sends one test class or method and prints the results as they arrive. Uses only
+ * the JDK, so it starts from {@code target/classes} alone:
+ * {@code java -cp target/classes Swag.HotRunnerClient ProductsPageTest[#method]}, or {@code stop} to end the runner.
+ * Exits with 1 when a test failed or the request could not be run.
+ */
+public class HotRunnerClient {
+
+    private HotRunnerClient() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: HotRunnerClient <class>[#<method>] | stop");
+            System.exit(2);
+        }
+        int port = Integer.getInteger("swag.hot.port", HotRunner.DEFAULT_PORT);
+        String request = args[0].equals("stop") ? "stop" : "run " + args[0];
+        boolean failed = true;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.println(request);
+            String line;
+            while ((line = in.readLine()) != null) {
+                System.out.println(line);
+                if (line.startsWith("DONE")) {
+                    failed = line.contains("error") || !line.contains("failed=0");
+                    if (request.equals("stop")) {
+                        failed = false;
+                    }
+                }
+            }
+        } catch (ConnectException e) {
+            System.err.println("No hot runner on localhost:" + port + "; start it with mvn test-compile exec:java -Phot");
+        }
+        System.exit(failed ? 1 : 0);
+    }
+}
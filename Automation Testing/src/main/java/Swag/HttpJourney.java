@@ -0,0 +1,42 @@
+package Swag;
+
+import java.util.List;
+
+/**
+ * A user journey as the server sees it: the requests a browser sends while a test walks through the pages.
+ * Adding items to the cart, the form fields and the per-user client-side quirks (problem_user, error_user) never
+ * reach the server, so the single-item and multi-item checkouts of {@code CheckoutFlowTest} and
+ * {@code MultiUserCheckoutTest} replay as the same request sequence.
+ */
+public record HttpJourney(String name, List<Step> steps) {
+
+    /**
+     * One step of the journey. {@code body} is a form-encoded POST body with {@code {username}} and
+     * {@code {password}} placeholders, or null for a GET. {@code expectedStatus} is what counts as success.
+     */
+    public record Step(String name, String path, String body, int expectedStatus, boolean authenticated) {
+
+        static Step page(String name, String path) {
+            return new Step(name, path, null, 200, true);
+        }
+    }
+
+    public HttpJourney {
+        steps = List.copyOf(steps);
+    }
+
+    // Static files a browser downloads once and then serves from its cache
+    public static final List<String> ASSETS = List.of("static/app.js", "static/app.css");
+
+    // login -> products -> cart -> checkout step one -> step two -> finish
+    public static HttpJourney checkout() {
+        return new HttpJourney("checkout", List.of(
+                new Step("login.page", "", null, 200, false),
+                new Step("login.submit", "api/login", "username={username}&password={password}", 200, false),
+                Step.page("inventory", "inventory.html"),
+                Step.page("cart", "cart.html"),
+                Step.page("checkout.stepOne", "checkout-step-one.html"),
+                Step.page("checkout.stepTwo", "checkout-step-two.html"),
+                Step.page("checkout.finish", "checkout-complete.html")));
+    }
+}
@@ -0,0 +1,56 @@
+package Swag;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records, per running test, the framework and test methods that talk to the browser and the {@code By} locators
+ * they look elements up with. Every WebDriver call walks the stack for methods of this package (page objects, waits,
+ * the session cache, the test itself); {@code findElement(s)} also records its locator with the class declaring it.
+ * Only installed in incremental mode (see {@link TestImpact}), as walking the stack on every call is not free.
+ */
+public class ImpactRecorder implements WebDriverListener {
+
+    private static final String PACKAGE = ImpactRecorder.class.getPackageName();
+    private static final StackWalker STACK = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    // Dependencies per test, in the notation of TestImpact
+    private static final Map<String, Set<String>> DEPENDENCIES = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        String test = TestContext.test();
+        if (TestContext.NONE.equals(test)) {
+            return;
+        }
+        Set<String> dependencies = DEPENDENCIES.computeIfAbsent(test, t -> ConcurrentHashMap.newKeySet());
+        STACK.forEach(frame -> {
+            Class<?> type = frame.getDeclaringClass();
+            if (type.getPackageName().equals(PACKAGE) && type != ImpactRecorder.class) {
+                dependencies.add(TestImpact.method(type.getName(), frame.getMethodName()));
+            }
+        });
+        if (method.getName().startsWith("findElement") && args != null && args.length == 1 && args[0] instanceof By by) {
+            String locator = by.toString();
+            // The nearest class of this package that declares the locator with a literal; others are dynamic and
+            // covered by the fingerprint of the method that built them
+            STACK.walk(frames -> frames
+                    .map(StackWalker.StackFrame::getDeclaringClass)
+                    .filter(type -> type.getPackageName().equals(PACKAGE))
+                    .filter(type -> BytecodeFingerprint.of(type.getName()).locators().contains(locator))
+                    .findFirst())
+                    .ifPresent(type -> dependencies.add(TestImpact.locator(type.getName(), locator)));
+        }
+    }
+
+    // What the given test touched so far, and forget it
+    public static Set<String> take(String test) {
+        Set<String> recorded = DEPENDENCIES.remove(test);
+        return recorded == null ? Set.of() : Set.copyOf(recorded);
+    }
+}
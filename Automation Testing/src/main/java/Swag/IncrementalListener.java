@@ -0,0 +1,88 @@
+package Swag;
+
+import org.testng.IDataProviderMethod;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Change-aware test selection, on with {@code -Dswag.incremental=true}. While the suite runs, {@link ImpactRecorder}
+ * notes which page-object methods and locators each test went through; when it finishes, those are stored with their
+ * fingerprints in {@link TestImpact}. The next incremental run only runs the tests {@link TestImpact#reasonToRun}
+ * gives a reason for, so after editing one page object only the tests that went through it run again.
+ *
+ * Fingerprints cover compiled code of this package, not the application under test or the data a test reads from
+ * static fields of another class; run without the property (or delete {@code test-impact.tsv}) for a full run.
+ */
+public class IncrementalListener implements IMethodInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    private final TestImpact impact = TestImpact.load(TestImpact.defaultFile());
+
+    // Per test of this run: whether every invocation passed, and what they touched
+    private final Map<String, Boolean> green = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> touched = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!TestImpact.enabled()) {
+            return methods;
+        }
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            String reason = impact.reasonToRun(StepMetricsListener.name(instance.getMethod()));
+            if (reason != null) {
+                selected.add(instance);
+                System.out.println("Incremental: " + StepMetricsListener.name(instance.getMethod()) + " (" + reason + ")");
+            }
+        }
+        System.out.printf("Incremental: running %d of %d methods of %s%n", selected.size(), methods.size(),
+                context.getName());
+        return selected;
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!TestImpact.enabled() || !method.isTestMethod()) {
+            return;
+        }
+        ITestNGMethod testMethod = testResult.getMethod();
+        String test = StepMetricsListener.name(testMethod);
+        green.merge(test, testResult.isSuccess(), Boolean::logicalAnd);
+        Set<String> dependencies = touched.computeIfAbsent(test, t -> ConcurrentHashMap.newKeySet());
+        Set<String> recorded = ImpactRecorder.take(test);
+        if (recorded.isEmpty()) {
+            return;
+        }
+        dependencies.addAll(recorded);
+        // The test and its rows, which a browser call does not always go through
+        dependencies.add(TestImpact.method(testMethod.getRealClass().getName(), testMethod.getMethodName()));
+        IDataProviderMethod dataProvider = testMethod.getDataProviderMethod();
+        if (dataProvider != null && dataProvider.getMethod() != null) {
+            dependencies.add(TestImpact.method(dataProvider.getMethod().getDeclaringClass().getName(),
+                    dataProvider.getMethod().getName()));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!TestImpact.enabled() || green.isEmpty()) {
+            return;
+        }
+        // Tests this run left out keep their entries
+        green.forEach((test, passed) -> impact.record(test, passed, touched.getOrDefault(test, Set.of())));
+        impact.save(TestImpact.defaultFile());
+        System.out.println("Test impact map written to " + TestImpact.defaultFile().toAbsolutePath());
+    }
+}
@@ -0,0 +1,240 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Browserless load mode: replays an {@link HttpJourney} over plain HTTP, one virtual thread per simulated user,
+ * and reports throughput, latency percentiles and error rate per step. Simulated users cycle through
+ * {@link LoginData#checkoutUsers()}.
+ *
+ * Run with {@code mvn compile exec:java -Pload} or {@code java Swag.LoadGenerator}. Settings come from {@code swag.load.users}
+ * (default 2000), {@code swag.load.durationSeconds} (30), {@code swag.load.rampUpSeconds} (5) and
+ * {@code swag.load.thinkMillis} (0). The target is the embedded {@link StandInServer} unless {@code swag.baseUrl}
+ * is set explicitly, so the public site is never load-tested by accident.
+ */
+public class LoadGenerator {
+
+    public record Settings(int users, Duration duration, Duration rampUp, Duration thinkTime) {
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("swag.load.users", 2000),
+                    Duration.ofSeconds(Long.getLong("swag.load.durationSeconds", 30)),
+                    Duration.ofSeconds(Long.getLong("swag.load.rampUpSeconds", 5)),
+                    Duration.ofMillis(Long.getLong("swag.load.thinkMillis", 0)));
+        }
+    }
+
+    public static final class StepStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        public long ok() {
+            return ok.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public double errorRate() {
+            long total = ok.sum() + errors.sum();
+            return total == 0 ? 0 : (double) errors.sum() / total;
+        }
+    }
+
+    public record Result(String journey, Settings settings, Duration elapsed, Map<String, StepStats> steps,
+                         long journeys, long failedJourneys) {
+
+        public double throughput(String step) {
+            StepStats stats = steps.get(step);
+            return stats == null ? 0 : stats.ok() / seconds();
+        }
+
+        public double journeysPerSecond() {
+            return journeys / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(1, elapsed.toMillis()) / 1000.0;
+        }
+
+        public String format() {
+            StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                    "Load (%s): users=%d, elapsed=%.1f s, journeys=%d (%.1f/s), failed journeys=%d%n",
+                    journey, settings.users(), seconds(), journeys, journeysPerSecond(), failedJourneys));
+            steps.forEach((name, s) -> out.append(String.format(Locale.ROOT,
+                    "  %-18s ok=%-8d ok/s=%9.1f errors=%6.2f%% p50=%8.2f p95=%8.2f p99=%8.2f ms%n",
+                    name, s.ok(), throughput(name), s.errorRate() * 100, s.latency().percentileMillis(50),
+                    s.latency().percentileMillis(95), s.latency().percentileMillis(99))));
+            return out.toString();
+        }
+
+        // load-latency.csv next to the step latency reports
+        public void export(Path directory) {
+            List<String> lines = new ArrayList<>();
+            lines.add("step,ok,errors,ok_per_s,error_rate,p50_ms,p95_ms,p99_ms,max_ms");
+            steps.forEach((name, s) -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.4f,%.3f,%.3f,%.3f,%.3f",
+                    name, s.ok(), s.errors(), throughput(name), s.errorRate(), s.latency().percentileMillis(50),
+                    s.latency().percentileMillis(95), s.latency().percentileMillis(99), s.latency().maxMillis())));
+            try {
+                Files.createDirectories(directory);
+                Files.write(directory.resolve("load-latency.csv"), lines, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final String ASSETS_STEP = "assets";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpJourney journey;
+    private final List<String> users;
+    private final Settings settings;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public LoadGenerator(String baseUrl, HttpJourney journey, List<String> users, Settings settings) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.journey = journey;
+        this.users = List.copyOf(users);
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) {
+        StandInServer server = System.getProperty("swag.baseUrl") == null ? StandInServer.shared() : null;
+        try {
+            String baseUrl = server != null ? server.baseUrl() : AppUnderTest.baseUrl();
+            Result result = new LoadGenerator(baseUrl, HttpJourney.checkout(), LoginData.checkoutUsers(),
+                    Settings.fromSystemProperties()).run();
+            System.out.print(result.format());
+            result.export(StepMetrics.reportDirectory());
+            System.out.println("Written to " + StepMetrics.reportDirectory().toAbsolutePath());
+        } finally {
+            // The server's dispatcher thread would otherwise keep the JVM alive
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    public Result run() {
+        Map<String, StepStats> steps = new LinkedHashMap<>();
+        steps.put(ASSETS_STEP, new StepStats());
+        journey.steps().forEach(step -> steps.put(step.name(), new StepStats()));
+        LongAdder journeys = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        long start = System.nanoTime();
+        long deadline = start + settings.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.users(); i++) {
+                String user = users.get(i % users.size());
+                // Users are started evenly over the ramp-up period
+                long startAt = start + settings.rampUp().toNanos() * i / settings.users();
+                executor.submit(() -> simulateUser(user, startAt, deadline, steps, journeys, failed));
+            }
+        }
+        return new Result(journey.name(), settings, Duration.ofNanos(System.nanoTime() - start), steps,
+                journeys.sum(), failed.sum());
+    }
+
+    private void simulateUser(String user, long startAt, long deadline, Map<String, StepStats> steps,
+                              LongAdder journeys, LongAdder failed) {
+        try {
+            sleepNanos(startAt - System.nanoTime());
+            boolean assetsCached = false;
+            while (System.nanoTime() < deadline) {
+                boolean completed = true;
+                if (!assetsCached) {
+                    for (String asset : HttpJourney.ASSETS) {
+                        completed &= send(new HttpJourney.Step(ASSETS_STEP, asset, null, 200, false), user, steps.get(ASSETS_STEP));
+                    }
+                    assetsCached = completed;
+                }
+                boolean interrupted = false;
+                for (HttpJourney.Step step : journey.steps()) {
+                    if (!completed) {
+                        break;
+                    }
+                    if (System.nanoTime() >= deadline) {
+                        // Cut off by the end of the run: neither completed nor failed
+                        interrupted = true;
+                        break;
+                    }
+                    completed = send(step, user, steps.get(step.name()));
+                    sleepNanos(settings.thinkTime().toNanos());
+                }
+                if (!completed) {
+                    failed.increment();
+                } else if (!interrupted) {
+                    journeys.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Sends one request, records its latency and returns whether it succeeded
+    private boolean send(HttpJourney.Step step, String user, StepStats stats) throws InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + step.path())).timeout(REQUEST_TIMEOUT);
+        if (step.body() != null) {
+            String body = step.body()
+                    .replace("{username}", user)
+                    .replace("{password}", LoginData.password);
+            request.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        if (step.authenticated()) {
+            // The real site keeps the session in this cookie, set by the login page script
+            request.header("Cookie", "session-username=" + user);
+        }
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            stats.latency().recordNanos(System.nanoTime() - begin);
+            if (response.statusCode() == step.expectedStatus()) {
+                stats.ok.increment();
+                return true;
+            }
+        } catch (IOException e) {
+            stats.latency().recordNanos(System.nanoTime() - begin);
+        }
+        stats.errors.increment();
+        return false;
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            Thread.sleep(Duration.ofNanos(nanos));
+        }
+    }
+}
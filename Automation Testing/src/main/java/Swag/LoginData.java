@@ -1,7 +1,22 @@
 package Swag;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class LoginData {
     public static String []userName = {"standard_user","locked_out_user","problem_user","performance_glitch_user","error_user","visual_user"};
     public static String password = "secret_sauce";
+    public static String url = "https://www.saucedemo.com/";
 
+    // Users that can reach the checkout, i.e. everyone but "locked_out_user"
+    public static List<String> checkoutUsers() {
+        List<String> allowed = new ArrayList<>();
+        for (String u : userName) {
+            if (u == null) continue;
+            String name = u.trim().toLowerCase();
+            if (name.equals("locked_out_user")) continue; // cannot log in
+            allowed.add(u);
+        }
+        return allowed;
+    }
 }
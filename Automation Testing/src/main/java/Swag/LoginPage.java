@@ -21,7 +21,7 @@ public class LoginPage{
     //Variables
     //String userName;
     //String Pass = "secret_sauce";
-    String url = "https://www.saucedemo.com/";
+    String url = AppUnderTest.baseUrl();
 
     //By Locators
     By userNameLocator = By.id("user-name");
@@ -44,7 +44,7 @@ public class LoginPage{
        myBrowser.findElement(userNameLocator).sendKeys(LoginData.userName[0]);
        myBrowser.findElement(passwordLocator).sendKeys(LoginData.password);
        myBrowser.findElement(loginButtonLocator).click();
-       Assert.assertEquals("https://www.saucedemo.com/inventory.html",myBrowser.getCurrentUrl());
+       Assert.assertEquals(url + "inventory.html",myBrowser.getCurrentUrl());
        myBrowser.quit();
     }
     @Test(testName ="TC_02-Verify login works with correct credentials",priority = 2)
@@ -60,7 +60,7 @@ public class LoginPage{
         myBrowser.findElement(userNameLocator).sendKeys(LoginData.userName[2]);
         myBrowser.findElement(passwordLocator).sendKeys(LoginData.password);
         myBrowser.findElement(loginButtonLocator).click();
-        Assert.assertEquals("https://www.saucedemo.com/inventory.html",myBrowser.getCurrentUrl());
+        Assert.assertEquals(url + "inventory.html",myBrowser.getCurrentUrl());
         myBrowser.quit();
     }
     @Test(testName ="TC_04-Verify login works with correct credentials",priority = 4)
@@ -68,7 +68,7 @@ public class LoginPage{
         myBrowser.findElement(userNameLocator).sendKeys(LoginData.userName[3]);
         myBrowser.findElement(passwordLocator).sendKeys(LoginData.password);
         myBrowser.findElement(loginButtonLocator).click();
-        Assert.assertEquals("https://www.saucedemo.com/inventory.html",myBrowser.getCurrentUrl());
+        Assert.assertEquals(url + "inventory.html",myBrowser.getCurrentUrl());
         myBrowser.quit();
     }
     @Test(testName ="TC_05-Verify login works with correct credentials",priority = 5)
@@ -76,7 +76,7 @@ public class LoginPage{
         myBrowser.findElement(userNameLocator).sendKeys(LoginData.userName[4]);
         myBrowser.findElement(passwordLocator).sendKeys(LoginData.password);
         myBrowser.findElement(loginButtonLocator).click();
-        Assert.assertEquals("https://www.saucedemo.com/inventory.html",myBrowser.getCurrentUrl());
+        Assert.assertEquals(url + "inventory.html",myBrowser.getCurrentUrl());
         myBrowser.quit();
     }
     @Test(testName ="TC_06-Verify login works with correct credentials",priority = 6)
@@ -84,7 +84,7 @@ public class LoginPage{
         myBrowser.findElement(userNameLocator).sendKeys(LoginData.userName[5]);
         myBrowser.findElement(passwordLocator).sendKeys(LoginData.password);
         myBrowser.findElement(loginButtonLocator).click();
-        Assert.assertEquals("https://www.saucedemo.com/inventory.html",myBrowser.getCurrentUrl());
+        Assert.assertEquals(url + "inventory.html",myBrowser.getCurrentUrl());
         myBrowser.quit();
     }
 }
@@ -4,7 +4,6 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 
@@ -28,30 +27,34 @@ public class LogoutPage {
      // Performs logout using the sidebar menu and waits until redirected to the login page.
 
     public void logout() {
-        // Open the burger menu
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.elementToBeClickable(menuButton))
-                .click();
-
-        // Click Logout in the sidebar
-        WebElement logout = new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.elementToBeClickable(logoutLink));
-        logout.click();
-
-        // Wait until login page is visible again
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.visibilityOfElementLocated(loginButton));
+        StepMetrics.time("LogoutPage.logout", () -> {
+            // Open the burger menu
+            WaitEngine.forStep(driver, "LogoutPage.menuButton", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(menuButton))
+                    .click();
+
+            // Click Logout in the sidebar
+            WebElement logout = WaitEngine.forStep(driver, "LogoutPage.logoutLink", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(logoutLink));
+            logout.click();
+
+            // Wait until login page is visible again
+            WaitEngine.forStep(driver, "LogoutPage.loginPage", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.visibilityOfElementLocated(loginButton));
+        });
     }
 
 
-     // Returns true if the driver is currently on the Sauce Demo login page.
+     // Returns true if the driver is currently on the Sauce Demo login page of the app under test.
     public boolean isOnLoginPage() {
-        try {
-            WebElement btn = new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.visibilityOfElementLocated(loginButton));
-            return btn.isDisplayed() && driver.getCurrentUrl().contains("saucedemo.com");
-        } catch (Exception e) {
-            return false;
-        }
+        return StepMetrics.time("LogoutPage.isOnLoginPage", () -> {
+            try {
+                WebElement btn = WaitEngine.forStep(driver, "LogoutPage.loginButton", Duration.ofSeconds(5))
+                        .until(ExpectedConditions.visibilityOfElementLocated(loginButton));
+                return btn.isDisplayed() && driver.getCurrentUrl().startsWith(AppUnderTest.baseUrl());
+            } catch (Exception e) {
+                return false;
+            }
+        });
     }
 }
@@ -0,0 +1,25 @@
+package Swag;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Adds what the current thread's browser downloaded and saved to the {@link NetworkReport} when a test method ends,
+ * then counts from zero again. A session kept across methods (user affinity) is thereby reported per method; the
+ * count of a method starts when its session was leased or the previous method ended, so its set-up is included.
+ */
+public class NetworkListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        PooledDriver session = DriverManager.currentSession();
+        if (session != null && session.network().isActive()) {
+            NetworkReport.record(TestContext.test(), TestContext.user(), session.network().savings());
+            session.network().resetCounters();
+        }
+    }
+}
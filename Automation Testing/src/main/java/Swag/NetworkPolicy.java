@@ -0,0 +1,53 @@
+package Swag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which requests a browser session may make. FUNCTIONAL blocks what no functional assertion looks at (images,
+ * fonts, analytics and error-reporting hosts); VISUAL allows everything, for runs that judge how the page looks.
+ * The default comes from {@code -Dswag.network.policy=functional|visual}; visual_user is always VISUAL.
+ * Extra third-party host patterns can be appended with {@code -Dswag.network.blockHosts=*cdn.example.com*,...}.
+ */
+public enum NetworkPolicy {
+
+    FUNCTIONAL(blockedPatterns()),
+    VISUAL(List.of());
+
+    private final List<String> blockedUrls;
+
+    NetworkPolicy(List<String> blockedUrls) {
+        this.blockedUrls = List.copyOf(blockedUrls);
+    }
+
+    // URL patterns for Network.setBlockedURLs, where '*' matches any sequence of characters
+    public List<String> blockedUrls() {
+        return blockedUrls;
+    }
+
+    public static NetworkPolicy fromSystemProperty() {
+        return "visual".equalsIgnoreCase(System.getProperty("swag.network.policy", "functional")) ? VISUAL : FUNCTIONAL;
+    }
+
+    public static NetworkPolicy forUser(String username) {
+        return "visual_user".equals(username) ? VISUAL : fromSystemProperty();
+    }
+
+    private static List<String> blockedPatterns() {
+        List<String> patterns = new ArrayList<>();
+        // Images and fonts, with or without a query string
+        for (String extension : new String[]{"png", "jpg", "jpeg", "gif", "webp", "svg", "ico", "woff", "woff2", "ttf", "otf"}) {
+            patterns.add("*." + extension);
+            patterns.add("*." + extension + "?*");
+        }
+        // Third-party analytics, tag managers and error reporting (saucedemo.com reports to backtrace.io)
+        patterns.addAll(List.of("*backtrace.io*", "*google-analytics.com*", "*googletagmanager.com*",
+                "*doubleclick.net*", "*facebook.net*", "*hotjar.com*", "*segment.io*", "*optimizely.com*"));
+        String extra = System.getProperty("swag.network.blockHosts", "");
+        if (!extra.isBlank()) {
+            Arrays.stream(extra.split(",")).map(String::trim).filter(p -> !p.isEmpty()).forEach(patterns::add);
+        }
+        return patterns;
+    }
+}
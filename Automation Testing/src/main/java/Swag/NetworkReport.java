@@ -0,0 +1,64 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Requests and bytes each test downloaded and saved through its {@link NetworkPolicy}, keyed by test and user.
+ */
+public class NetworkReport {
+
+    public record Key(String test, String user) {
+    }
+
+    private static final Map<Key, NetworkShield.Savings> BY_TEST = new ConcurrentHashMap<>();
+
+    private NetworkReport() {
+    }
+
+    public static void record(String test, String user, NetworkShield.Savings savings) {
+        BY_TEST.merge(new Key(test, user), savings, NetworkShield.Savings::plus);
+    }
+
+    public static NetworkShield.Savings total() {
+        return BY_TEST.values().stream().reduce(NetworkShield.Savings.NONE, NetworkShield.Savings::plus);
+    }
+
+    public static String summary() {
+        NetworkShield.Savings total = total();
+        return String.format(Locale.ROOT,
+                "Network: requests=%d, blocked=%d, received=%.1f KB, saved=%.1f KB (%d blocked requests of unknown size)",
+                total.requests(), total.blockedRequests(), total.bytesReceived() / 1024.0, total.bytesSaved() / 1024.0,
+                total.unknownSizes());
+    }
+
+    // network-savings.csv with one row per test and user
+    public static void export(Path directory) {
+        List<String> lines = new ArrayList<>();
+        lines.add("test,user,requests,blocked_requests,bytes_received,bytes_saved,unknown_sizes");
+        BY_TEST.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Key::test).thenComparing(Key::user)))
+                .forEach(e -> lines.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d", e.getKey().test(),
+                        e.getKey().user(), e.getValue().requests(), e.getValue().blockedRequests(),
+                        e.getValue().bytesReceived(), e.getValue().bytesSaved(), e.getValue().unknownSizes())));
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("network-savings.csv"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static boolean isEmpty() {
+        return BY_TEST.isEmpty();
+    }
+}
@@ -0,0 +1,163 @@
+package Swag;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies a {@link NetworkPolicy} to one Chrome session through the DevTools protocol and counts what the session
+ * downloaded and what the policy kept it from downloading. Blocked requests never leave the browser, so their size
+ * is taken from an earlier session that did load the same URL (query string aside, as trackers add a unique one to
+ * every hit), e.g. a {@code visual_user} session; without one it is counted as unknown. Blocked hosts are never
+ * contacted to find out.
+ *
+ * Uses only protocol-level commands and events ({@code Network.enable}, {@code Network.setBlockedURLs}), so it
+ * does not depend on a particular selenium-devtools version. Drivers without DevTools get a shield that does
+ * nothing.
+ */
+public class NetworkShield {
+
+    public record Savings(long requests, long blockedRequests, long bytesReceived, long bytesSaved, long unknownSizes) {
+
+        public static final Savings NONE = new Savings(0, 0, 0, 0, 0);
+
+        public Savings plus(Savings other) {
+            return new Savings(requests + other.requests, blockedRequests + other.blockedRequests,
+                    bytesReceived + other.bytesReceived, bytesSaved + other.bytesSaved, unknownSizes + other.unknownSizes);
+        }
+    }
+
+    // Transfer sizes seen by any session, by URL without query string
+    private static final Map<String, Long> KNOWN_SIZES = new ConcurrentHashMap<>();
+
+    private final DevTools devTools;
+    private final Map<String, String> urlsByRequestId = new ConcurrentHashMap<>();
+    private volatile Counters counters = new Counters();
+    private NetworkPolicy policy;
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder bytesReceived = new LongAdder();
+        final Queue<String> blockedUrls = new ConcurrentLinkedQueue<>();
+    }
+
+    private NetworkShield(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    // Connect to the session behind the (possibly decorated) driver
+    public static NetworkShield attach(WebDriver driver) {
+        WebDriver raw = driver instanceof WrapsDriver wrapper ? wrapper.getWrappedDriver() : driver;
+        if (!(raw instanceof HasDevTools hasDevTools)) {
+            return new NetworkShield(null);
+        }
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            NetworkShield shield = new NetworkShield(devTools);
+            shield.listen();
+            devTools.send(new Command<Void>("Network.enable", Map.of()));
+            return shield;
+        } catch (WebDriverException e) {
+            // No DevTools connection (e.g. a remote grid without CDP): run unshielded
+            return new NetworkShield(null);
+        }
+    }
+
+    public boolean isActive() {
+        return devTools != null;
+    }
+
+    public synchronized void apply(NetworkPolicy newPolicy) {
+        if (devTools == null || newPolicy == policy) {
+            return;
+        }
+        devTools.send(new Command<Void>("Network.setBlockedURLs", Map.of("urls", newPolicy.blockedUrls())));
+        policy = newPolicy;
+    }
+
+    // Start counting from zero, e.g. when the session is leased for a new test
+    public void resetCounters() {
+        counters = new Counters();
+        urlsByRequestId.clear();
+    }
+
+    public Savings savings() {
+        Counters current = counters;
+        long blocked = 0;
+        long saved = 0;
+        long unknown = 0;
+        for (String url : current.blockedUrls) {
+            blocked++;
+            Long size = KNOWN_SIZES.get(withoutQuery(url));
+            if (size == null) {
+                unknown++;
+            } else {
+                saved += size;
+            }
+        }
+        return new Savings(current.requests.sum(), blocked, current.bytesReceived.sum(), saved, unknown);
+    }
+
+    public void close() {
+        if (devTools != null) {
+            try {
+                devTools.clearListeners();
+                devTools.close();
+            } catch (WebDriverException ignored) {
+                // The browser is already gone
+            }
+        }
+    }
+
+    private void listen() {
+        devTools.addListener(event("Network.requestWillBeSent"), params -> {
+            Object request = params.get("request");
+            if (request instanceof Map<?, ?> map) {
+                urlsByRequestId.put(String.valueOf(params.get("requestId")), String.valueOf(map.get("url")));
+            }
+            counters.requests.increment();
+        });
+        devTools.addListener(event("Network.loadingFinished"), params -> {
+            String url = urlsByRequestId.remove(String.valueOf(params.get("requestId")));
+            long bytes = params.get("encodedDataLength") instanceof Number n ? n.longValue() : 0;
+            counters.bytesReceived.add(bytes);
+            if (url != null && bytes > 0) {
+                KNOWN_SIZES.put(withoutQuery(url), bytes);
+            }
+        });
+        devTools.addListener(event("Network.loadingFailed"), params -> {
+            String url = urlsByRequestId.remove(String.valueOf(params.get("requestId")));
+            // "inspector" is the reason Chrome gives for requests matched by Network.setBlockedURLs
+            if (url != null && "inspector".equals(params.get("blockedReason"))) {
+                counters.blockedUrls.add(url);
+            }
+        });
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    private static String withoutQuery(String url) {
+        int end = url.length();
+        for (char c : new char[]{'?', '#'}) {
+            int index = url.indexOf(c);
+            if (index >= 0) {
+                end = Math.min(end, index);
+            }
+        }
+        return url.substring(0, end);
+    }
+}
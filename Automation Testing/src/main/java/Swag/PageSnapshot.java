@@ -0,0 +1,96 @@
+package Swag;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of everything the tests usually assert on a Products or Cart page (title, badge count, inventory
+ * rows with their button state, cart rows), read with a single {@code executeScript} round trip.
+ */
+public record PageSnapshot(String url, String title, int badgeCount, List<Item> inventory, List<CartLine> cart) {
+
+    public record Item(String name, BigDecimal price, String buttonText, String buttonId) {
+
+        public boolean inCart() {
+            return buttonId.startsWith("remove-");
+        }
+    }
+
+    public record CartLine(String name, BigDecimal price) {
+    }
+
+    // innerText is used so the values match what WebElement.getText() would return
+    private static final String SCRIPT =
+            "const text = el => el ? el.innerText.trim() : '';"
+                    + "const badge = document.querySelector('.shopping_cart_badge');"
+                    + "return {"
+                    + "  url: window.location.href,"
+                    + "  title: text(document.querySelector('span.title')),"
+                    + "  badge: badge ? parseInt(badge.innerText.trim(), 10) || 0 : 0,"
+                    + "  inventory: Array.from(document.querySelectorAll('.inventory_item')).map(item => {"
+                    + "    const button = item.querySelector('button.btn_inventory');"
+                    + "    return {"
+                    + "      name: text(item.querySelector('.inventory_item_name')),"
+                    + "      price: text(item.querySelector('.inventory_item_price')),"
+                    + "      buttonText: text(button),"
+                    + "      buttonId: button ? button.id : ''"
+                    + "    };"
+                    + "  }),"
+                    + "  cart: Array.from(document.querySelectorAll('.cart_item')).map(item => ({"
+                    + "    name: text(item.querySelector('.inventory_item_name')),"
+                    + "    price: text(item.querySelector('.inventory_item_price'))"
+                    + "  }))"
+                    + "};";
+
+    public PageSnapshot {
+        inventory = List.copyOf(inventory);
+        cart = List.copyOf(cart);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static PageSnapshot capture(WebDriver driver) {
+        Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(SCRIPT);
+        List<Item> inventory = new ArrayList<>();
+        for (Map<String, Object> row : (List<Map<String, Object>>) raw.get("inventory")) {
+            inventory.add(new Item(string(row.get("name")), price(row.get("price")),
+                    string(row.get("buttonText")), string(row.get("buttonId"))));
+        }
+        List<CartLine> cart = new ArrayList<>();
+        for (Map<String, Object> row : (List<Map<String, Object>>) raw.get("cart")) {
+            cart.add(new CartLine(string(row.get("name")), price(row.get("price"))));
+        }
+        return new PageSnapshot(string(raw.get("url")), string(raw.get("title")),
+                ((Number) raw.get("badge")).intValue(), inventory, cart);
+    }
+
+    public String firstItemName() {
+        return inventory.isEmpty() ? "" : inventory.get(0).name();
+    }
+
+    public List<String> cartItemNames() {
+        return cart.stream().map(CartLine::name).toList();
+    }
+
+    public long cartOccurrences(String name) {
+        return cart.stream().filter(line -> line.name().equalsIgnoreCase(name)).count();
+    }
+
+    public long itemsMarkedInCart() {
+        return inventory.stream().filter(Item::inCart).count();
+    }
+
+    private static String string(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    // "$29.99" -> 29.99, empty when the row has no price
+    private static BigDecimal price(Object value) {
+        String digits = string(value).replaceAll("[^0-9.]", "");
+        return digits.isEmpty() ? BigDecimal.ZERO : new BigDecimal(digits);
+    }
+}
@@ -0,0 +1,30 @@
+package Swag;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.List;
+
+/**
+ * Attaches the page phases measured since the previous test method on the same thread (its {@code @BeforeMethod}
+ * included) to the test's result, as the {@value #ATTRIBUTE} attribute, a list of {@link PageTracer.Vitals}, and as
+ * lines of the TestNG report.
+ */
+public class PageTraceListener implements IInvokedMethodListener {
+
+    public static final String ATTRIBUTE = "swag.vitals";
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod() || !PageTracer.enabled()) {
+            return;
+        }
+        List<PageTracer.Vitals> phases = VitalsReport.drain();
+        if (!phases.isEmpty()) {
+            testResult.setAttribute(ATTRIBUTE, phases);
+            phases.forEach(v -> Reporter.log("Page phase " + v));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package Swag;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures page transitions of one browser session: the Navigation and Resource Timing of the phase, and LCP, CLS,
+ * INP and long tasks from {@code PerformanceObserver}s installed in every document. With {@code -Dswag.trace=full}
+ * each phase is also recorded with the DevTools {@code Tracing} domain and written to
+ * {@code <reportDir>/traces/<test>/<user>-<n>-<phase>.json}, which Chrome's trace viewer and the DevTools
+ * Performance panel open.
+ *
+ * Opt-in: {@code -Dswag.trace=vitals} collects only the vitals, {@code full} adds the traces, {@code off} (the
+ * default) does nothing. Without DevTools (HtmlUnit, a grid without CDP) there are no traces, and documents loaded
+ * during a phase are measured without LCP, CLS and INP because the observers cannot be installed before they load.
+ */
+public class PageTracer {
+
+    public enum Mode { OFF, VITALS, FULL }
+
+    /** One phase; times are milliseconds and -1 when the browser did not report them. */
+    public record Vitals(String test, String user, String phase, double durationMillis, boolean navigation,
+                         double ttfbMillis, double domContentLoadedMillis, double loadMillis, double lcpMillis,
+                         double cls, double inpMillis, double longTaskMillis, int resources, long transferBytes,
+                         Path trace) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: %.0f ms%s, ttfb=%.0f, lcp=%.0f, cls=%.3f, inp=%.0f, long tasks=%.0f ms, resources=%d (%d B)%s",
+                    phase, durationMillis, navigation ? " (navigation)" : "", ttfbMillis, lcpMillis, cls, inpMillis,
+                    longTaskMillis, resources, transferBytes, trace == null ? "" : ", trace " + trace);
+        }
+    }
+
+    /** A phase between {@link #begin(String)} and {@link #end(Phase)}. */
+    public static final class Phase {
+
+        private final String name;
+        private final String token;
+        private final double startMillis;
+        private final long startNanos;
+        private final boolean tracing;
+
+        private Phase(String name, String token, double startMillis, boolean tracing) {
+            this.name = name;
+            this.token = token;
+            this.startMillis = startMillis;
+            this.startNanos = System.nanoTime();
+            this.tracing = tracing;
+        }
+    }
+
+    private static final Mode MODE = Mode.valueOf(System.getProperty("swag.trace", "off").toUpperCase(Locale.ROOT));
+
+    // Categories of the DevTools Performance panel: main-thread tasks, loading, paint, layout shifts, user timing
+    private static final List<String> CATEGORIES = List.of("devtools.timeline", "disabled-by-default-devtools.timeline",
+            "disabled-by-default-devtools.timeline.frame", "disabled-by-default-devtools.timeline.stack", "loading",
+            "blink.user_timing", "latencyInfo", "v8.execute", "disabled-by-default-v8.cpu_profiler");
+
+    // Runs in every document before the page's own scripts, and again at the start of each phase (a no-op then)
+    private static final String OBSERVERS = """
+            (() => {
+              if (window.__swagVitals) return;
+              const v = window.__swagVitals = {lcp: -1, shifts: [], events: [], longTasks: []};
+              const observe = (type, add, extra) => {
+                try {
+                  new PerformanceObserver(list => list.getEntries().forEach(add))
+                      .observe(Object.assign({type: type, buffered: true}, extra));
+                } catch (e) { /* entry type not supported here */ }
+              };
+              observe('largest-contentful-paint', e => v.lcp = e.renderTime || e.loadTime || e.startTime);
+              observe('layout-shift', e => { if (!e.hadRecentInput) v.shifts.push([e.startTime, e.value]); });
+              observe('event', e => { if (e.interactionId) v.events.push([e.startTime, e.duration]); },
+                  {durationThreshold: 16});
+              observe('longtask', e => v.longTasks.push([e.startTime, e.duration]));
+            })();
+            """;
+
+    private static final String BEGIN = OBSERVERS + """
+            window.__swagPhase = arguments[0];
+            performance.mark('swag:' + arguments[1]);
+            return performance.now();
+            """;
+
+    // A different token means the phase loaded a new document, whose timeline starts at its navigation
+    private static final String READ = """
+            const newDocument = window.__swagPhase !== arguments[1];
+            const since = newDocument ? 0 : arguments[0];
+            const v = window.__swagVitals || {lcp: -1, shifts: [], events: [], longTasks: []};
+            const nav = newDocument ? performance.getEntriesByType('navigation')[0] : null;
+            const inPhase = entries => entries.filter(e => e[0] >= since);
+            const resources = performance.getEntriesByType('resource').filter(r => r.startTime >= since);
+            return {
+              navigation: newDocument,
+              ttfb: nav ? nav.responseStart : -1,
+              domContentLoaded: nav ? nav.domContentLoadedEventEnd : -1,
+              load: nav ? nav.loadEventEnd : -1,
+              lcp: v.lcp >= since ? v.lcp - since : -1,
+              cls: inPhase(v.shifts).reduce((sum, e) => sum + e[1], 0),
+              inp: inPhase(v.events).reduce((max, e) => Math.max(max, e[1]), -1),
+              longTasks: inPhase(v.longTasks).reduce((sum, e) => sum + e[1], 0),
+              resources: resources.length,
+              bytes: resources.reduce((sum, r) => sum + (r.transferSize || 0), 0)
+            };
+            """;
+
+    private static final AtomicInteger TOKENS = new AtomicInteger();
+    private static final PageTracer INACTIVE = new PageTracer(null, null);
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private final List<Map<String, Object>> traceEvents = new ArrayList<>();
+    private final AtomicInteger traces = new AtomicInteger();
+    private volatile CountDownLatch traceComplete;
+
+    private PageTracer(WebDriver driver, DevTools devTools) {
+        this.driver = driver;
+        this.devTools = devTools;
+    }
+
+    public static Mode mode() {
+        return MODE;
+    }
+
+    public static boolean enabled() {
+        return MODE != Mode.OFF;
+    }
+
+    // Connect to the session behind the (possibly decorated) driver; a tracer that measures nothing when tracing is off
+    public static PageTracer attach(WebDriver driver) {
+        if (!enabled() || !(driver instanceof JavascriptExecutor)) {
+            return INACTIVE;
+        }
+        WebDriver raw = driver instanceof WrapsDriver wrapper ? wrapper.getWrappedDriver() : driver;
+        if (!(raw instanceof HasDevTools hasDevTools)) {
+            return new PageTracer(driver, null);
+        }
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            PageTracer tracer = new PageTracer(driver, devTools);
+            tracer.listen();
+            devTools.send(new Command<Void>("Page.enable", Map.of()));
+            devTools.send(new Command<Void>("Page.addScriptToEvaluateOnNewDocument", Map.of("source", OBSERVERS)));
+            return tracer;
+        } catch (WebDriverException e) {
+            // No DevTools connection: vitals of the current document only
+            return new PageTracer(driver, null);
+        }
+    }
+
+    // Measures nothing, e.g. for a driver that is not a pooled session
+    public static PageTracer inactive() {
+        return INACTIVE;
+    }
+
+    public boolean isActive() {
+        return driver != null;
+    }
+
+    // Start a phase, e.g. just before the click that leads to the next page; null when inactive
+    public Phase begin(String name) {
+        if (driver == null) {
+            return null;
+        }
+        boolean tracing = MODE == Mode.FULL && devTools != null && startTracing();
+        String token = "phase-" + TOKENS.incrementAndGet();
+        Object now = ((JavascriptExecutor) driver).executeScript(BEGIN, token, name);
+        return new Phase(name, token, now instanceof Number n ? n.doubleValue() : 0, tracing);
+    }
+
+    // Finish a phase once its page is there and hand its vitals to the VitalsReport; null when the page is gone
+    public Vitals end(Phase phase) {
+        if (phase == null) {
+            return null;
+        }
+        double durationMillis = (System.nanoTime() - phase.startNanos) / 1e6;
+        Map<?, ?> read = null;
+        try {
+            if (((JavascriptExecutor) driver).executeScript(READ, phase.startMillis, phase.token) instanceof Map<?, ?> map) {
+                read = map;
+            }
+        } catch (WebDriverException e) {
+            // The browser went away mid-phase; the trace may still tell why
+        }
+        Path trace = phase.tracing ? stopTracing(phase.name) : null;
+        if (read == null) {
+            return null;
+        }
+        Vitals vitals = new Vitals(TestContext.test(), TestContext.user(), phase.name, durationMillis,
+                Boolean.TRUE.equals(read.get("navigation")), number(read, "ttfb"), number(read, "domContentLoaded"),
+                number(read, "load"), number(read, "lcp"), number(read, "cls"), number(read, "inp"),
+                number(read, "longTasks"), (int) number(read, "resources"), (long) number(read, "bytes"), trace);
+        VitalsReport.record(vitals);
+        return vitals;
+    }
+
+    private void listen() {
+        devTools.addListener(event("Tracing.dataCollected"), params -> {
+            if (params.get("value") instanceof List<?> events) {
+                synchronized (traceEvents) {
+                    events.forEach(e -> traceEvents.add(castEvent(e)));
+                }
+            }
+        });
+        devTools.addListener(event("Tracing.tracingComplete"), params -> {
+            CountDownLatch complete = traceComplete;
+            if (complete != null) {
+                complete.countDown();
+            }
+        });
+    }
+
+    private boolean startTracing() {
+        synchronized (traceEvents) {
+            traceEvents.clear();
+        }
+        try {
+            devTools.send(new Command<Void>("Tracing.start", Map.of(
+                    "transferMode", "ReportEvents",
+                    "traceConfig", Map.of("recordMode", "recordAsMuchAsPossible", "includedCategories", CATEGORIES))));
+            return true;
+        } catch (WebDriverException e) {
+            // Another trace is still running in this browser
+            return false;
+        }
+    }
+
+    private Path stopTracing(String phase) {
+        traceComplete = new CountDownLatch(1);
+        try {
+            devTools.send(new Command<Void>("Tracing.end", Map.of()));
+            if (!traceComplete.await(30, TimeUnit.SECONDS)) {
+                return null;
+            }
+        } catch (WebDriverException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        List<Map<String, Object>> events;
+        synchronized (traceEvents) {
+            events = List.copyOf(traceEvents);
+            traceEvents.clear();
+        }
+        Path file = StepMetrics.reportDirectory().resolve("traces").resolve(fileName(TestContext.test()))
+                .resolve(fileName(TestContext.user() + "-" + traces.incrementAndGet() + "-" + phase) + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            // The JSON Object Format of the Trace Event format
+            Files.writeString(file, new Json().toJson(Map.of("traceEvents", events)), StandardCharsets.UTF_8);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castEvent(Object event) {
+        return (Map<String, Object>) event;
+    }
+
+    private static double number(Map<?, ?> values, String key) {
+        return values.get(key) instanceof Number n ? n.doubleValue() : -1;
+    }
+
+    private static String fileName(String value) {
+        return value.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+}
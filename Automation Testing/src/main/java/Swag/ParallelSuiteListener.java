@@ -0,0 +1,37 @@
+package Swag;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+
+/**
+ * Scales the suite's thread counts to the machine it runs on. The method pool, the DataProvider pool and tests with
+ * their own parallel mode (e.g. one thread per user instance) get {@link #threadCount()} threads;
+ * {@code -Dswag.parallel=false} turns parallel execution off entirely.
+ */
+public class ParallelSuiteListener implements IAlterSuiteListener {
+
+    // Defaults to one thread per available core, override with -Dswag.threads=N
+    public static int threadCount() {
+        return Math.max(1, Integer.getInteger("swag.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        boolean parallel = Boolean.parseBoolean(System.getProperty("swag.parallel", "true"));
+        for (XmlSuite suite : suites) {
+            if (!parallel) {
+                suite.setParallel(XmlSuite.ParallelMode.NONE);
+                suite.getTests().forEach(test -> test.setParallel(XmlSuite.ParallelMode.NONE));
+                continue;
+            }
+            suite.setThreadCount(threadCount());
+            suite.setDataProviderThreadCount(threadCount());
+            for (XmlTest test : suite.getTests()) {
+                test.setThreadCount(threadCount());
+            }
+        }
+    }
+}
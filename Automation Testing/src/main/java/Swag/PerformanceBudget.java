@@ -0,0 +1,171 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Time budgets for page-object steps and flows, per user class. Every step timed through {@link StepMetrics#time}
+ * is checked against its budget when it completes. With {@code -Dswag.budgets=fail} an overrun throws a
+ * {@link BudgetExceededError}, with {@code warn} (the default) it is logged and listed in the suite report, and
+ * {@code off} skips the checks.
+ *
+ * Budgets come from {@code swag.budgets.file}, or else from {@code perf-budgets.properties} on the classpath:
+ * <pre>
+ *   user.performance_glitch_user=slow          # user class; users without one are in "default"
+ *   default.SessionCache.login=5000            # &lt;class&gt;.&lt;step&gt;=&lt;milliseconds&gt;
+ *   slow.SessionCache.login=10000
+ * </pre>
+ * A user class without a budget for a step falls back to the {@code default} budget of that step.
+ */
+public class PerformanceBudget {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    public record Violation(String test, String user, String userClass, String step, long budgetMillis,
+                            double measuredMillis) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s took %.0f ms for %s (%s), budget %d ms, in %s",
+                    step, measuredMillis, user, userClass, budgetMillis, test);
+        }
+    }
+
+    /** A step finished, but later than its budget allows. */
+    public static class BudgetExceededError extends AssertionError {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Violation violation;
+
+        public BudgetExceededError(Violation violation) {
+            super("Performance budget exceeded: " + violation);
+            this.violation = violation;
+        }
+
+        public Violation violation() {
+            return violation;
+        }
+    }
+
+    public static final String DEFAULT_CLASS = "default";
+
+    private static final PerformanceBudget SHARED = loadDefault();
+
+    private final Mode mode;
+    private final Map<String, String> userClasses = new HashMap<>();
+    private final Map<String, Long> budgets = new HashMap<>();
+    private final Queue<Violation> violations = new ConcurrentLinkedQueue<>();
+
+    public PerformanceBudget(Properties properties, Mode mode) {
+        this.mode = mode;
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.startsWith("user.")) {
+                userClasses.put(key.substring("user.".length()), value);
+            } else if (key.indexOf('.') > 0) {
+                budgets.put(key, Long.parseLong(value));
+            }
+        }
+    }
+
+    public static PerformanceBudget shared() {
+        return SHARED;
+    }
+
+    public static PerformanceBudget load(Path file, Mode mode) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return new PerformanceBudget(properties, mode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public String userClass(String user) {
+        return userClasses.getOrDefault(user, DEFAULT_CLASS);
+    }
+
+    public OptionalLong budgetMillis(String user, String step) {
+        Long budget = budgets.get(userClass(user) + "." + step);
+        if (budget == null) {
+            budget = budgets.get(DEFAULT_CLASS + "." + step);
+        }
+        return budget == null ? OptionalLong.empty() : OptionalLong.of(budget);
+    }
+
+    // Called when a timed step completed on the current test thread
+    public void check(String step, long nanos) {
+        if (mode == Mode.OFF || budgets.isEmpty()) {
+            return;
+        }
+        String user = TestContext.user();
+        OptionalLong budget = budgetMillis(user, step);
+        if (budget.isEmpty() || nanos <= budget.getAsLong() * 1_000_000) {
+            return;
+        }
+        Violation violation = new Violation(TestContext.test(), user, userClass(user), step, budget.getAsLong(),
+                nanos / 1e6);
+        violations.add(violation);
+        if (mode == Mode.FAIL) {
+            throw new BudgetExceededError(violation);
+        }
+        System.out.println("Performance budget warning: " + violation);
+    }
+
+    public List<Violation> violations() {
+        return List.copyOf(violations);
+    }
+
+    // perf-budget-violations.csv, one row per overrun
+    public void export(Path directory) {
+        List<String> lines = new ArrayList<>();
+        lines.add("test,user,user_class,step,budget_ms,measured_ms");
+        for (Violation v : violations) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%s,%s,%d,%.1f", v.test(), v.user(), v.userClass(), v.step(),
+                    v.budgetMillis(), v.measuredMillis()));
+        }
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("perf-budget-violations.csv"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PerformanceBudget loadDefault() {
+        Mode mode = Mode.valueOf(System.getProperty("swag.budgets", "warn").toUpperCase(Locale.ROOT));
+        String file = System.getProperty("swag.budgets.file");
+        if (file != null) {
+            return load(Path.of(file), mode);
+        }
+        Properties properties = new Properties();
+        try (InputStream in = PerformanceBudget.class.getClassLoader().getResourceAsStream("perf-budgets.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PerformanceBudget(properties, mode);
+    }
+}
@@ -0,0 +1,211 @@
+package Swag;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary store of per-run step timings, one block per run:
+ * <pre>
+ *   int   magic 'SWPH'     int  payload length     long CRC32 of the payload
+ *   payload: long run start (epoch ms), UTF commit, int rows,
+ *            rows x (UTF user, UTF step, int count, long p50 µs, long p95 µs, long p99 µs)
+ * </pre>
+ * Blocks are only ever appended (under a file lock, so shards can share one file). A block cut short by a crash
+ * fails its checksum and is skipped when reading. Reading builds an index by commit and by user and step.
+ *
+ * The file is {@code swag.perf.store} (default {@code perf-history.bin} in the working directory).
+ */
+public class PerformanceHistory {
+
+    private static final int MAGIC = 0x53575048;
+
+    public record StepStats(String user, String step, int count, long p50Micros, long p95Micros, long p99Micros) {
+    }
+
+    public record Run(long startedAtMillis, String commit, List<StepStats> steps) {
+
+        public Run {
+            steps = List.copyOf(steps);
+        }
+    }
+
+    public record UserStep(String user, String step) {
+    }
+
+    private final Path file;
+    private final List<Run> runs = new ArrayList<>();
+    private final Map<String, List<Run>> byCommit = new HashMap<>();
+    private final Map<UserStep, List<StepStats>> byUserStep = new HashMap<>();
+
+    private PerformanceHistory(Path file) {
+        this.file = file;
+    }
+
+    public static Path defaultFile() {
+        return Path.of(System.getProperty("swag.perf.store", "perf-history.bin"));
+    }
+
+    public static PerformanceHistory open(Path file) {
+        PerformanceHistory history = new PerformanceHistory(file);
+        if (Files.isRegularFile(file)) {
+            try {
+                history.read(ByteBuffer.wrap(Files.readAllBytes(file)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return history;
+    }
+
+    // Oldest first
+    public List<Run> runs() {
+        return List.copyOf(runs);
+    }
+
+    public List<Run> runsOf(String commit) {
+        return List.copyOf(byCommit.getOrDefault(commit, List.of()));
+    }
+
+    // Timings of one user's step over all runs, oldest first
+    public List<StepStats> history(String user, String step) {
+        return List.copyOf(byUserStep.getOrDefault(new UserStep(user, step), List.of()));
+    }
+
+    public void append(Run run) {
+        byte[] payload = encode(run);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer block = ByteBuffer.allocate(16 + payload.length);
+        block.putInt(MAGIC).putInt(payload.length).putLong(crc.getValue()).put(payload).flip();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                // Held until the channel closes
+                channel.lock();
+                while (block.hasRemaining()) {
+                    channel.write(block);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index(run);
+    }
+
+    // One row per user and step, merged over every test that ran it
+    public static Run fromStepMetrics(long startedAtMillis, String commit) {
+        Map<UserStep, LatencyHistogram> merged = new HashMap<>();
+        StepMetrics.snapshot().forEach((key, histogram) ->
+                merged.computeIfAbsent(new UserStep(key.user(), key.step()), k -> new LatencyHistogram()).add(histogram));
+        List<StepStats> steps = new ArrayList<>();
+        merged.forEach((key, h) -> steps.add(new StepStats(key.user(), key.step(), (int) h.count(),
+                micros(h.percentileMillis(50)), micros(h.percentileMillis(95)), micros(h.percentileMillis(99)))));
+        steps.sort((a, b) -> a.user().equals(b.user()) ? a.step().compareTo(b.step()) : a.user().compareTo(b.user()));
+        return new Run(startedAtMillis, commit, steps);
+    }
+
+    // swag.commit, then the CI's GIT_COMMIT, then git itself; "unknown" outside a repository
+    public static String currentCommit() {
+        String commit = System.getProperty("swag.commit", System.getenv("GIT_COMMIT"));
+        if (commit != null && !commit.isBlank()) {
+            return commit.trim();
+        }
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short=12", "HEAD").redirectErrorStream(true).start();
+            String out = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (git.waitFor(5, TimeUnit.SECONDS) && git.exitValue() == 0 && !out.isEmpty()) {
+                return out;
+            }
+        } catch (IOException e) {
+            // No git on this machine
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+
+    private void read(ByteBuffer buffer) throws IOException {
+        while (buffer.remaining() >= 16) {
+            int start = buffer.position();
+            int magic = buffer.getInt();
+            int length = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (magic != MAGIC || length < 0 || length > buffer.remaining()) {
+                // Torn or foreign tail: nothing after it can be trusted
+                buffer.position(start);
+                return;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() == checksum) {
+                index(decode(payload));
+            }
+        }
+    }
+
+    private void index(Run run) {
+        runs.add(run);
+        byCommit.computeIfAbsent(run.commit(), c -> new ArrayList<>()).add(run);
+        for (StepStats stats : run.steps()) {
+            byUserStep.computeIfAbsent(new UserStep(stats.user(), stats.step()), k -> new ArrayList<>()).add(stats);
+        }
+    }
+
+    private static byte[] encode(Run run) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(run.startedAtMillis());
+            out.writeUTF(run.commit());
+            out.writeInt(run.steps().size());
+            for (StepStats s : run.steps()) {
+                out.writeUTF(s.user());
+                out.writeUTF(s.step());
+                out.writeInt(s.count());
+                out.writeLong(s.p50Micros());
+                out.writeLong(s.p95Micros());
+                out.writeLong(s.p99Micros());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Run decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long startedAt = in.readLong();
+            String commit = in.readUTF();
+            int rows = in.readInt();
+            List<StepStats> steps = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                steps.add(new StepStats(in.readUTF(), in.readUTF(), in.readInt(), in.readLong(), in.readLong(), in.readLong()));
+            }
+            return new Run(startedAt, commit, steps);
+        }
+    }
+
+    private static long micros(double millis) {
+        return Math.round(millis * 1000);
+    }
+}
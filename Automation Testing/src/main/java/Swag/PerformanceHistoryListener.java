@@ -0,0 +1,41 @@
+package Swag;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.util.List;
+
+/**
+ * Appends the suite's step timings per user to the {@link PerformanceHistory} and reports the steps whose p95
+ * regressed against the rolling baseline. With {@code -Dswag.perf.regressions=fail} a regression also fails the run,
+ * as the failed result of {@code PerformanceRegressionTest}, the last test in testng.xml.
+ */
+public class PerformanceHistoryListener implements ISuiteListener {
+
+    private long startedAtMillis;
+
+    @Override
+    public void onStart(ISuite suite) {
+        startedAtMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!StepMetrics.enabled() || StepMetrics.snapshot().isEmpty()) {
+            return;
+        }
+        PerformanceHistory history = PerformanceHistory.open(PerformanceHistory.defaultFile());
+        PerformanceHistory.Run run = PerformanceHistory.fromStepMetrics(startedAtMillis, PerformanceHistory.currentCommit());
+        List<RegressionDetector.Regression> regressions = RegressionDetector.fromSystemProperties().detect(history, run);
+        history.append(run);
+        RegressionDetector.export(regressions, StepMetrics.reportDirectory());
+
+        System.out.printf("Performance history: %d steps recorded for %s, %d earlier runs%n",
+                run.steps().size(), run.commit(), history.runs().size() - 1);
+        if (regressions.isEmpty()) {
+            return;
+        }
+        System.out.println("Performance regressions (p95):");
+        regressions.forEach(r -> System.out.println("  " + r));
+    }
+}
@@ -0,0 +1,97 @@
+package Swag;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A browser session owned by {@link DriverPool}, together with the bookkeeping used for eviction.
+ */
+public class PooledDriver {
+
+    private final WebDriver driver;
+    private final DriverPool pool;
+    private final long createdAtNanos;
+    private final NetworkShield network;
+    private PageTracer tracer;
+    private long processId;
+    private int leaseCount;
+
+    PooledDriver(WebDriver driver, DriverPool pool) {
+        this.driver = driver;
+        this.pool = pool;
+        this.createdAtNanos = System.nanoTime();
+        this.network = NetworkShield.attach(driver);
+    }
+
+    public WebDriver driver() {
+        return driver;
+    }
+
+    // The pool the session goes back to
+    DriverPool pool() {
+        return pool;
+    }
+
+    public NetworkShield network() {
+        return network;
+    }
+
+    // Connected on first use, as most runs do not trace
+    public synchronized PageTracer tracer() {
+        if (tracer == null) {
+            tracer = PageTracer.attach(driver);
+        }
+        return tracer;
+    }
+
+    // chromedriver's pid (the root of the session's process tree), -1 when it cannot be found
+    public synchronized long processId() {
+        if (processId == 0) {
+            processId = findProcessId(driver);
+        }
+        return processId;
+    }
+
+    public int leaseCount() {
+        return leaseCount;
+    }
+
+    long ageNanos() {
+        return System.nanoTime() - createdAtNanos;
+    }
+
+    void markLeased() {
+        leaseCount++;
+    }
+
+    // Chrome reports the profile directory and debugging port it was started with; the process whose command line
+    // has them is this session's browser, and its parent the chromedriver that launched it
+    private static long findProcessId(WebDriver driver) {
+        WebDriver raw = driver instanceof WrapsDriver wrapper ? wrapper.getWrappedDriver() : driver;
+        if (!(raw instanceof HasCapabilities session)) {
+            return -1;
+        }
+        String flag = null;
+        if (session.getCapabilities().getCapability("chrome") instanceof Map<?, ?> chrome && chrome.get("userDataDir") != null) {
+            flag = "--user-data-dir=" + chrome.get("userDataDir");
+        } else if (session.getCapabilities().getCapability("goog:chromeOptions") instanceof Map<?, ?> options
+                && options.get("debuggerAddress") != null) {
+            String address = String.valueOf(options.get("debuggerAddress"));
+            flag = "--remote-debugging-port=" + address.substring(address.lastIndexOf(':') + 1);
+        }
+        if (flag == null) {
+            return -1;
+        }
+        String match = flag;
+        ProcessHandle jvm = ProcessHandle.current();
+        return jvm.descendants()
+                .filter(p -> p.info().arguments().map(args -> Arrays.asList(args).contains(match)).orElse(false))
+                .findFirst()
+                .map(browser -> browser.parent().filter(parent -> parent.pid() != jvm.pid()).orElse(browser).pid())
+                .orElse(-1L);
+    }
+}
@@ -3,158 +3,248 @@ package Swag;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class ProductsPage {
     private final WebDriver driver;
 
     // Locators
     private final By title = By.cssSelector("span.title");
-    private final By inventoryItemNames = By.cssSelector(".inventory_item_name");
     private final By firstAddToCartBtn = By.cssSelector("button[id^='add-to-cart']");
     private final By cartBadge = By.cssSelector(".shopping_cart_badge");
     private final By sortSelect = By.cssSelector("select[class='product_sort_container']");
     private final By menuButton = By.id("react-burger-menu-btn");
     private final By logoutLink = By.id("logout_sidebar_link");
+    private final By resetLink = By.id("reset_sidebar_link");
     private final By firstItemActionButton = By.cssSelector(".inventory_item:first-of-type button.btn_inventory");
     private final By anyAddButton = By.cssSelector("button[id^='add-to-cart']");
     private final By anyRemoveButton = By.cssSelector("button[id^='remove-']");
     private final By cartIcon = By.cssSelector(".shopping_cart_link");
     private final By cartItems = By.cssSelector(".cart_item");
-    private final By cartItemNames = By.cssSelector(".cart_item .inventory_item_name");
 
     public ProductsPage(WebDriver driver) {
         this.driver = driver;
     }
 
     public String getTitleText() {
-        return driver.findElement(title).getText();
+        return StepMetrics.time("ProductsPage.getTitleText", () -> driver.findElement(title).getText());
     }
 
     public void addFirstItemToCart() {
-        driver.findElement(firstAddToCartBtn).click();
+        StepMetrics.time("ProductsPage.addFirstItemToCart", () -> driver.findElement(firstAddToCartBtn).click());
     }
     // Method
 
     public int getCartBadgeCount() {
-        try {
-            String text = driver.findElement(cartBadge).getText();
-            return Integer.parseInt(text.trim());
-        } catch (NoSuchElementException e) {
-            return 0; // no items in cart
-        }
+        return StepMetrics.time("ProductsPage.getCartBadgeCount", () -> {
+            try {
+                String text = driver.findElement(cartBadge).getText();
+                return Integer.parseInt(text.trim());
+            } catch (NoSuchElementException e) {
+                return 0; // no items in cart
+            }
+        });
     }
 
     public void sortByNameZToA() {
-        // Wait for the sort dropdown to be visible
-        WebElement sort = new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.visibilityOfElementLocated(sortSelect));
-        Select select = new Select(sort);
-        // Visible text on Sauce Demo for Z to A
-        select.selectByVisibleText("Name (Z to A)");
+        StepMetrics.time("ProductsPage.sortByNameZToA", () -> {
+            // Wait for the sort dropdown to be visible
+            WebElement sort = WaitEngine.forStep(driver, "ProductsPage.sortSelect", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.visibilityOfElementLocated(sortSelect));
+            Select select = new Select(sort);
+            // Visible text on Sauce Demo for Z to A
+            select.selectByVisibleText("Name (Z to A)");
+        });
     }
 
+    // Reads only the first name in one script call instead of fetching every item element
     public String getFirstItemName() {
-        List<WebElement> items = driver.findElements(inventoryItemNames);
-        if (items.isEmpty()) return "";
-        return items.get(0).getText();
+        return StepMetrics.time("ProductsPage.getFirstItemName", () -> {
+            Object name = ((JavascriptExecutor) driver).executeScript(
+                    "const first = document.querySelector(arguments[0]); return first ? first.innerText.trim() : '';",
+                    ".inventory_item_name");
+            return name == null ? "" : name.toString();
+        });
     }
 
     // Returns current text of the first item's action button ("Add to cart" or "Remove")
     public String getFirstItemButtonText() {
-        return driver.findElement(firstItemActionButton).getText();
+        return StepMetrics.time("ProductsPage.getFirstItemButtonText", () -> driver.findElement(firstItemActionButton).getText());
     }
 
     // Add N items to cart by repeatedly clicking the first available Add button
     public void addMultipleItems(int count) {
-        for (int i = 0; i < count; i++) {
-            WebElement addBtn = new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.elementToBeClickable(anyAddButton));
-            addBtn.click();
-        }
+        StepMetrics.time("ProductsPage.addMultipleItems", () -> {
+            for (int i = 0; i < count; i++) {
+                WebElement addBtn = WaitEngine.forStep(driver, "ProductsPage.addButton", Duration.ofSeconds(5))
+                        .until(ExpectedConditions.elementToBeClickable(anyAddButton));
+                addBtn.click();
+            }
+        });
     }
 
     // Add all available items to the cart
-    public void addAllItems() {
-        // Keep clicking the first available Add button until none remain
-        List<WebElement> addButtons = driver.findElements(anyAddButton);
-        while (!addButtons.isEmpty()) {
-            // Ensure the button is clickable before clicking
-            new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.elementToBeClickable(addButtons.get(0)))
-                    .click();
-            // Refresh the list since the DOM changes (button id/text toggles)
-            addButtons = driver.findElements(anyAddButton);
-        }
+    public CartMutationReport addAllItems() {
+        return addAllItems(BatchMode.fromSystemProperty());
+    }
+
+    // Click every Add button in one batch, then verify once that every item is in the cart and counted by the badge
+    public CartMutationReport addAllItems(BatchMode mode) {
+        return StepMetrics.time("ProductsPage.addAllItems", () -> mutateCart("addAllItems", anyAddButton, mode, true));
     }
 
     // Remove the first available item from the cart (first visible Remove button)
     public void removeFirstItemFromCart() {
-        WebElement removeBtn = new WebDriverWait(driver, Duration.ofSeconds(5))
-                .until(ExpectedConditions.elementToBeClickable(anyRemoveButton));
-        removeBtn.click();
+        StepMetrics.time("ProductsPage.removeFirstItemFromCart", () -> {
+            WebElement removeBtn = WaitEngine.forStep(driver, "ProductsPage.removeButton", Duration.ofSeconds(5))
+                    .until(ExpectedConditions.elementToBeClickable(anyRemoveButton));
+            removeBtn.click();
+        });
     }
 
     // Remove all items currently in the cart (click all Remove buttons)
-    public void removeAllItemsFromCart() {
-        List<WebElement> removeButtons = driver.findElements(anyRemoveButton);
-        while (!removeButtons.isEmpty()) {
-            // Click the first then refresh the list (ids change back to add-to-cart)
-            removeButtons.get(0).click();
-            removeButtons = driver.findElements(anyRemoveButton);
-        }
+    public CartMutationReport removeAllItemsFromCart() {
+        return removeAllItemsFromCart(BatchMode.fromSystemProperty());
+    }
+
+    // Click every Remove button in one batch, then verify once that the cart and badge are empty
+    public CartMutationReport removeAllItemsFromCart(BatchMode mode) {
+        return StepMetrics.time("ProductsPage.removeAllItemsFromCart", () -> mutateCart("removeAllItemsFromCart", anyRemoveButton, mode, false));
     }
 
     // Whether the cart badge is present (visible) on the page
     public boolean isCartBadgeVisible() {
-        try {
-            return driver.findElement(cartBadge).isDisplayed();
-        } catch (NoSuchElementException e) {
-            return false;
-        }
+        return StepMetrics.time("ProductsPage.isCartBadgeVisible", () -> {
+            try {
+                return driver.findElement(cartBadge).isDisplayed();
+            } catch (NoSuchElementException e) {
+                return false;
+            }
+        });
     }
 
     public void logout() {
-        // Ensure the menu button is clickable, then open the sidebar
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.elementToBeClickable(menuButton))
-                .click();
-
-        // Wait for the logout link to be visible and clickable (sidebar animation)
-        WebElement logout = new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.elementToBeClickable(logoutLink));
-        logout.click();
+        StepMetrics.time("ProductsPage.logout", () -> {
+            // Ensure the menu button is clickable, then open the sidebar
+            WaitEngine.forStep(driver, "ProductsPage.menuButton", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(menuButton))
+                    .click();
 
-        // Wait until redirected back to login page (login button visible)
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.visibilityOfElementLocated(By.id("login-button")));
+            // Wait for the logout link to be visible and clickable (sidebar animation)
+            WebElement logout = WaitEngine.forStep(driver, "ProductsPage.logoutLink", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(logoutLink));
+            logout.click();
+
+            // Wait until redirected back to login page (login button visible)
+            WaitEngine.forStep(driver, "ProductsPage.loginPage", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.visibilityOfElementLocated(By.id("login-button")));
+        });
+    }
+
+    // Sidebar "Reset App State": empties the cart but keeps the user logged in, then shows a fresh Products page
+    public void resetAppState() {
+        StepMetrics.time("ProductsPage.resetAppState", () -> {
+            // Every page but the login page has the sidebar
+            if (driver.findElements(menuButton).isEmpty()) {
+                driver.get(AppUnderTest.baseUrl() + "inventory.html");
+            }
+            WaitEngine.forStep(driver, "ProductsPage.menuButton", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(menuButton))
+                    .click();
+            WaitEngine.forStep(driver, "ProductsPage.resetLink", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(resetLink))
+                    .click();
+            // saucedemo leaves the item buttons on "Remove" after a reset, a reload renders them afresh
+            driver.get(AppUnderTest.baseUrl() + "inventory.html");
+            WaitEngine.forStep(driver, "ProductsPage.title", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.visibilityOfElementLocated(title));
+        });
     }
 
     // Click on the cart icon to navigate to the cart page
     public void clickCartIcon() {
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.elementToBeClickable(cartIcon))
-                .click();
+        StepMetrics.time("ProductsPage.clickCartIcon", () -> {
+            WaitEngine.forStep(driver, "ProductsPage.cartIcon", Duration.ofSeconds(10))
+                    .until(ExpectedConditions.elementToBeClickable(cartIcon))
+                    .click();
+        });
     }
 
     // Returns number of items listed in the cart page
     public int getCartItemsCount() {
-        // Wait until either items are visible or the cart is empty (badge might be absent)
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(d -> d.getCurrentUrl().contains("cart.html"));
-        return driver.findElements(cartItems).size();
+        return StepMetrics.time("ProductsPage.getCartItemsCount", () -> {
+            // Wait until either items are visible or the cart is empty (badge might be absent)
+            WaitEngine.forStep(driver, "ProductsPage.cartPage", Duration.ofSeconds(10))
+                    .until(d -> d.getCurrentUrl().contains("cart.html"));
+            return driver.findElements(cartItems).size();
+        });
     }
 
     // Returns the list of item names currently shown in the cart
     public List<String> getCartItemNames() {
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(d -> d.getCurrentUrl().contains("cart.html"));
-        return driver.findElements(cartItemNames).stream()
-                .map(WebElement::getText)
-                .collect(Collectors.toList());
+        return StepMetrics.time("ProductsPage.getCartItemNames", () -> {
+            WaitEngine.forStep(driver, "ProductsPage.cartPage", Duration.ofSeconds(10))
+                    .until(d -> d.getCurrentUrl().contains("cart.html"));
+            return snapshot().cartItemNames();
+        });
+    }
+
+    private CartMutationReport mutateCart(String action, By targets, BatchMode mode, boolean adding) {
+        if (mode == BatchMode.SCRIPTED) {
+            return mutateCartInPage(action, adding);
+        }
+        // One lookup, back-to-back clicks, one verification read
+        List<WebElement> buttons = driver.findElements(targets);
+        for (WebElement button : buttons) {
+            button.click();
+        }
+        PageSnapshot after = snapshot();
+        long marked = after.itemsMarkedInCart();
+        boolean verified = adding
+                ? marked == after.inventory().size() && after.badgeCount() == marked
+                : marked == 0 && after.cart().isEmpty() && after.badgeCount() == 0;
+        int n = buttons.size();
+        return new CartMutationReport(action, BatchMode.PIPELINED, n, after.badgeCount(), verified,
+                n + 2, legacyCommands(n, adding));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CartMutationReport mutateCartInPage(String action, boolean adding) {
+        // Clicks run inside the page; the result is read after the app had a tick to re-render
+        Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(
+                "const selector = arguments[0];"
+                        + "const done = arguments[arguments.length - 1];"
+                        + "const buttons = Array.from(document.querySelectorAll(selector));"
+                        + "buttons.forEach(b => b.click());"
+                        + "setTimeout(() => {"
+                        + "  const badge = document.querySelector('.shopping_cart_badge');"
+                        + "  done({"
+                        + "    clicked: buttons.length,"
+                        + "    remaining: document.querySelectorAll(selector).length,"
+                        + "    marked: document.querySelectorAll(\"button[id^='remove-']\").length,"
+                        + "    badge: badge ? parseInt(badge.innerText.trim(), 10) || 0 : 0"
+                        + "  });"
+                        + "}, 0);",
+                adding ? "button[id^='add-to-cart']" : "button[id^='remove-']");
+        int clicked = ((Number) result.get("clicked")).intValue();
+        int remaining = ((Number) result.get("remaining")).intValue();
+        int marked = ((Number) result.get("marked")).intValue();
+        int badge = ((Number) result.get("badge")).intValue();
+        boolean verified = remaining == 0 && badge == (adding ? marked : 0);
+        return new CartMutationReport(action, BatchMode.SCRIPTED, clicked, badge, verified, 1,
+                legacyCommands(clicked, adding));
+    }
+
+    // Commands the old loops needed: a re-query after every click, plus the clickable check (2 calls) when adding
+    private static int legacyCommands(int clicks, boolean adding) {
+        return 1 + clicks * (adding ? 4 : 2);
+    }
+
+    // Title, badge, inventory rows and cart rows of the current page, read in a single round trip
+    public PageSnapshot snapshot() {
+        return StepMetrics.time("ProductsPage.snapshot", () -> PageSnapshot.capture(driver));
     }
 }
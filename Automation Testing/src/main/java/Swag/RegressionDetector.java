@@ -0,0 +1,102 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares a run's p95 per user and step against a rolling baseline: the median p95 of the same user and step over
+ * the last {@code swag.perf.baselineRuns} (default 5) earlier runs. A step regressed when its p95 is more than
+ * {@code swag.perf.threshold} (default 0.25, i.e. 25%) above the baseline and at least
+ * {@code swag.perf.minDeltaMillis} (default 50) slower, so sub-millisecond noise never counts. Steps with fewer than
+ * {@code swag.perf.minSamples} (default 3) samples in the run are not judged.
+ */
+public class RegressionDetector {
+
+    public record Regression(String user, String step, double baselineP95Millis, double currentP95Millis,
+                             int baselineRuns) {
+
+        public double change() {
+            return baselineP95Millis == 0 ? Double.POSITIVE_INFINITY : currentP95Millis / baselineP95Millis - 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s: p95 %.1f ms -> %.1f ms (%+.0f%% over %d runs)",
+                    user, step, baselineP95Millis, currentP95Millis, change() * 100, baselineRuns);
+        }
+    }
+
+    private final int baselineRuns;
+    private final double threshold;
+    private final double minDeltaMillis;
+    private final int minSamples;
+
+    public RegressionDetector(int baselineRuns, double threshold, double minDeltaMillis, int minSamples) {
+        this.baselineRuns = baselineRuns;
+        this.threshold = threshold;
+        this.minDeltaMillis = minDeltaMillis;
+        this.minSamples = minSamples;
+    }
+
+    public static RegressionDetector fromSystemProperties() {
+        return new RegressionDetector(
+                Integer.getInteger("swag.perf.baselineRuns", 5),
+                Double.parseDouble(System.getProperty("swag.perf.threshold", "0.25")),
+                Double.parseDouble(System.getProperty("swag.perf.minDeltaMillis", "50")),
+                Integer.getInteger("swag.perf.minSamples", 3));
+    }
+
+    // "fail" makes regressions fail the suite, anything else only reports them
+    public static boolean failOnRegression() {
+        return "fail".equalsIgnoreCase(System.getProperty("swag.perf.regressions", "warn"));
+    }
+
+    // Regressions of the run against the history recorded before it
+    public List<Regression> detect(PerformanceHistory history, PerformanceHistory.Run current) {
+        List<Regression> regressions = new ArrayList<>();
+        for (PerformanceHistory.StepStats now : current.steps()) {
+            if (now.count() < minSamples) {
+                continue;
+            }
+            List<Long> baseline = new ArrayList<>();
+            List<PerformanceHistory.StepStats> past = history.history(now.user(), now.step());
+            for (int i = past.size() - 1; i >= 0 && baseline.size() < baselineRuns; i--) {
+                if (past.get(i) != now && past.get(i).count() >= minSamples) {
+                    baseline.add(past.get(i).p95Micros());
+                }
+            }
+            if (baseline.isEmpty()) {
+                continue;
+            }
+            baseline.sort(null);
+            double baselineMillis = baseline.get(baseline.size() / 2) / 1000.0;
+            double currentMillis = now.p95Micros() / 1000.0;
+            if (currentMillis > baselineMillis * (1 + threshold) && currentMillis - baselineMillis >= minDeltaMillis) {
+                regressions.add(new Regression(now.user(), now.step(), baselineMillis, currentMillis, baseline.size()));
+            }
+        }
+        return regressions;
+    }
+
+    // perf-regressions.csv, header only when nothing regressed
+    public static void export(List<Regression> regressions, Path directory) {
+        List<String> lines = new ArrayList<>();
+        lines.add("user,step,baseline_p95_ms,current_p95_ms,change,baseline_runs");
+        for (Regression r : regressions) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,%.4f,%d", r.user(), r.step(),
+                    r.baselineP95Millis(), r.currentP95Millis(), r.change(), r.baselineRuns()));
+        }
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("perf-regressions.csv"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package Swag;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Follows the process tree of the browser a test method runs in, from the start to the end of the method, and adds
+ * what it used to the {@link ResourceReport}. Sessions whose processes cannot be found (a remote grid, another
+ * browser) are not measured.
+ */
+public class ResourceListener implements IInvokedMethodListener {
+
+    private final Map<ITestResult, ResourceSampler.Tracker> running = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod() || !ResourceSampler.enabled()) {
+            return;
+        }
+        PooledDriver session = DriverManager.currentSession();
+        long pid = session == null ? -1 : session.processId();
+        if (pid > 0) {
+            running.put(testResult, ResourceSampler.begin(pid));
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        ResourceSampler.Tracker tracker = running.remove(testResult);
+        if (tracker != null) {
+            ResourceReport.record(TestContext.test(), TestContext.user(), ResourceSampler.end(tracker));
+        }
+    }
+}
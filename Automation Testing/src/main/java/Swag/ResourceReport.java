@@ -0,0 +1,107 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What each test's browser process tree cost, keyed by test and user: peak memory, thread and file-descriptor
+ * counts over its invocations and the CPU time they used together.
+ */
+public class ResourceReport {
+
+    public record Key(String test, String user) {
+    }
+
+    public record Entry(int invocations, ResourceSampler.Usage usage) {
+
+        Entry plus(Entry other) {
+            ResourceSampler.Usage a = usage;
+            ResourceSampler.Usage b = other.usage;
+            return new Entry(invocations + other.invocations, new ResourceSampler.Usage(
+                    Math.max(a.peakRssBytes(), b.peakRssBytes()), a.cpuMillis() + b.cpuMillis(),
+                    Math.max(a.peakThreads(), b.peakThreads()), Math.max(a.peakFileDescriptors(), b.peakFileDescriptors()),
+                    Math.max(a.peakProcesses(), b.peakProcesses()), a.samples() + b.samples()));
+        }
+    }
+
+    private static final Map<Key, Entry> BY_TEST = new ConcurrentHashMap<>();
+
+    private ResourceReport() {
+    }
+
+    public static void record(String test, String user, ResourceSampler.Usage usage) {
+        BY_TEST.merge(new Key(test, user), new Entry(1, usage), Entry::plus);
+    }
+
+    public static Map<Key, Entry> snapshot() {
+        return Map.copyOf(BY_TEST);
+    }
+
+    public static boolean isEmpty() {
+        return BY_TEST.isEmpty();
+    }
+
+    // Peaks of the heaviest test, CPU of all tests, and how many such sessions the machine's memory holds
+    public static String summary() {
+        long peakRss = 0;
+        long cpuMillis = 0;
+        int threads = 0;
+        int fds = 0;
+        int processes = 0;
+        for (Entry entry : BY_TEST.values()) {
+            peakRss = Math.max(peakRss, entry.usage().peakRssBytes());
+            cpuMillis += entry.usage().cpuMillis();
+            threads = Math.max(threads, entry.usage().peakThreads());
+            fds = Math.max(fds, entry.usage().peakFileDescriptors());
+            processes = Math.max(processes, entry.usage().peakProcesses());
+        }
+        long memory = totalMemoryBytes();
+        return String.format(Locale.ROOT,
+                "Browser resources: tests=%d, peak RSS=%.1f MB, CPU=%.1f s, peak threads=%d, peak fds=%d, "
+                        + "peak processes=%d, sessions fitting in memory=%s",
+                BY_TEST.size(), peakRss / 1048576.0, cpuMillis / 1000.0, threads, fds, processes,
+                memory > 0 && peakRss > 0 ? String.valueOf(memory / peakRss) : "?");
+    }
+
+    // browser-resources.csv with one row per test and user
+    public static void export(Path directory) {
+        List<String> lines = new ArrayList<>();
+        lines.add("test,user,invocations,peak_rss_mb,cpu_ms,peak_threads,peak_fds,peak_processes,samples");
+        BY_TEST.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Key::test).thenComparing(Key::user)))
+                .forEach(e -> {
+                    ResourceSampler.Usage u = e.getValue().usage();
+                    lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%d,%d,%d,%d,%d", e.getKey().test(),
+                            e.getKey().user(), e.getValue().invocations(), u.peakRssBytes() / 1048576.0, u.cpuMillis(),
+                            u.peakThreads(), u.peakFileDescriptors(), u.peakProcesses(), u.samples()));
+                });
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("browser-resources.csv"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long totalMemoryBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/meminfo"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("MemTotal:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,161 @@
+package Swag;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Follows a process tree (chromedriver and the Chrome processes under it) through {@code /proc} and keeps the peak
+ * resident memory, thread and file-descriptor counts and the CPU time used while it is tracked. Every tracked tree
+ * is sampled every {@code swag.resources.sampleMillis} (default 250) by one daemon thread, plus once at the start and
+ * once at the end. {@code -Dswag.resources=false} turns sampling off; it is always off where there is no
+ * {@code /proc}.
+ */
+public class ResourceSampler {
+
+    public record Usage(long peakRssBytes, long cpuMillis, int peakThreads, int peakFileDescriptors,
+                        int peakProcesses, int samples) {
+    }
+
+    // One reading of a whole tree; CPU ticks are per process so that processes can come and go between readings
+    public record Sample(long rssBytes, int threads, int fileDescriptors, Map<Long, Long> cpuTicks) {
+
+        public int processes() {
+            return cpuTicks.size();
+        }
+    }
+
+    /** A tree being followed between {@link #begin(long)} and {@link #end(Tracker)}. */
+    public static final class Tracker {
+
+        private final long rootPid;
+        private final Map<Long, Long> startTicks;
+        private final Map<Long, Long> lastTicks = new HashMap<>();
+        private long peakRss;
+        private int peakThreads;
+        private int peakFds;
+        private int peakProcesses;
+        private int samples;
+
+        private Tracker(long rootPid, Sample first) {
+            this.rootPid = rootPid;
+            this.startTicks = Map.copyOf(first.cpuTicks());
+            add(first);
+        }
+
+        private synchronized void add(Sample sample) {
+            peakRss = Math.max(peakRss, sample.rssBytes());
+            peakThreads = Math.max(peakThreads, sample.threads());
+            peakFds = Math.max(peakFds, sample.fileDescriptors());
+            peakProcesses = Math.max(peakProcesses, sample.processes());
+            sample.cpuTicks().forEach((pid, ticks) -> lastTicks.merge(pid, ticks, Math::max));
+            samples++;
+        }
+
+        private synchronized Usage usage() {
+            long ticks = 0;
+            for (Map.Entry<Long, Long> e : lastTicks.entrySet()) {
+                // Processes started during the test count from zero
+                ticks += e.getValue() - startTicks.getOrDefault(e.getKey(), 0L);
+            }
+            return new Usage(peakRss, ticks * 1000 / CLOCK_TICKS_PER_SECOND, peakThreads, peakFds, peakProcesses, samples);
+        }
+    }
+
+    // USER_HZ, 100 on every mainstream Linux build
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final Path PROC = Path.of("/proc");
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("swag.resources", "true"))
+            && Files.isDirectory(PROC.resolve("self"));
+    private static final Set<Tracker> ACTIVE = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "resource-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        long interval = Math.max(10, Long.getLong("swag.resources.sampleMillis", 250));
+        SAMPLER.scheduleAtFixedRate(() -> ACTIVE.forEach(t -> t.add(sample(t.rootPid))),
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private ResourceSampler() {
+    }
+
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    // Stop the sampler thread for good (see HotRunner#closeLoader)
+    static void close() {
+        SAMPLER.shutdownNow();
+        ACTIVE.clear();
+    }
+
+    public static Tracker begin(long rootPid) {
+        Tracker tracker = new Tracker(rootPid, sample(rootPid));
+        ACTIVE.add(tracker);
+        return tracker;
+    }
+
+    public static Usage end(Tracker tracker) {
+        ACTIVE.remove(tracker);
+        tracker.add(sample(tracker.rootPid));
+        return tracker.usage();
+    }
+
+    // The process and all of its descendants right now; processes that exit while being read are skipped
+    public static Sample sample(long rootPid) {
+        List<Long> pids = new ArrayList<>();
+        ProcessHandle.of(rootPid).ifPresent(root -> {
+            pids.add(root.pid());
+            root.descendants().forEach(p -> pids.add(p.pid()));
+        });
+        long rss = 0;
+        int threads = 0;
+        int fds = 0;
+        Map<Long, Long> ticks = new HashMap<>();
+        for (long pid : pids) {
+            Path dir = PROC.resolve(Long.toString(pid));
+            try {
+                for (String line : Files.readAllLines(dir.resolve("status"), StandardCharsets.UTF_8)) {
+                    if (line.startsWith("VmRSS:")) {
+                        rss += kilobytes(line) * 1024;
+                    } else if (line.startsWith("Threads:")) {
+                        threads += Integer.parseInt(line.substring("Threads:".length()).trim());
+                    }
+                }
+                ticks.put(pid, cpuTicks(Files.readString(dir.resolve("stat"), StandardCharsets.UTF_8)));
+                try (Stream<Path> open = Files.list(dir.resolve("fd"))) {
+                    fds += (int) open.count();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Exited between listing and reading, or not ours to read
+            }
+        }
+        return new Sample(rss, threads, fds, ticks);
+    }
+
+    // utime + stime (fields 14 and 15); the command name in field 2 may contain spaces, so count from its ')'
+    static long cpuTicks(String stat) {
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+    }
+
+    private static long kilobytes(String statusLine) {
+        String value = statusLine.substring(statusLine.indexOf(':') + 1).trim();
+        return Long.parseLong(value.substring(0, value.indexOf(' ')));
+    }
+}
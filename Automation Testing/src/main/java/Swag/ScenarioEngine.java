@@ -0,0 +1,178 @@
+package Swag;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link CheckoutScenario}s on one browser session. Every scenario starts from the same prefix: logged in as
+ * its user, on the Products page with an empty cart. The first scenario of a user pays for the prefix (the login);
+ * the next scenario of the same user branches off it with the sidebar's "Reset App State" instead of logging in
+ * again. A failed scenario leaves the session in an unknown state, so the scenario after it logs in afresh.
+ *
+ * Each page transition (the login and every checkout page) is a {@link PageTracer} phase, measured when tracing is
+ * on ({@code swag.trace}).
+ *
+ * {@link #report()} compares the time the logins took with the time the resets took, i.e. what sharing saved.
+ * Tests that keep one engine per user across test methods do so only in user-affinity mode
+ * ({@code swag.scenario.affinity}, default true); with it off every test method gets its own session and login.
+ */
+public class ScenarioEngine {
+
+    public record Result(CheckoutScenario scenario, boolean sharedPrefix, long millis, Throwable failure) {
+
+        public boolean passed() {
+            return failure == null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %s in %d ms%s", scenario, passed() ? "passed" : "FAILED", millis,
+                    sharedPrefix ? " (shared login)" : "")
+                    + (passed() ? "" : " - " + failure);
+        }
+    }
+
+    private static final Duration PAGE_TIMEOUT = Duration.ofSeconds(20);
+
+    // Latest login-to-Products time per user, the cost a shared prefix avoids
+    private static final Map<String, Long> LAST_LOGIN_NANOS = new ConcurrentHashMap<>();
+    private static final LongAdder SCENARIOS = new LongAdder();
+    private static final LongAdder LOGINS = new LongAdder();
+    private static final LongAdder SHARED_LOGINS = new LongAdder();
+    private static final LongAdder LOGIN_NANOS = new LongAdder();
+    private static final LongAdder RESET_NANOS = new LongAdder();
+    private static final LongAdder SAVED_NANOS = new LongAdder();
+
+    private final WebDriver driver;
+    private final ProductsPage products;
+    private final CheckoutPage checkout;
+    // User whose clean Products page the session can branch from, null when it has to log in
+    private String sessionUser;
+
+    public ScenarioEngine(WebDriver driver) {
+        this.driver = driver;
+        this.products = new ProductsPage(driver);
+        this.checkout = new CheckoutPage(driver);
+    }
+
+    // The session the scenarios run on
+    public WebDriver driver() {
+        return driver;
+    }
+
+    public Result run(CheckoutScenario scenario) {
+        SCENARIOS.increment();
+        boolean sharing = scenario.user().equals(sessionUser);
+        long start = System.nanoTime();
+        PageTracer.Phase login = null;
+        try {
+            login = tracer().begin(sharing ? "reset" : "login");
+            if (sharing) {
+                TestContext.setUser(scenario.user());
+                products.resetAppState();
+                long branch = System.nanoTime() - start;
+                SHARED_LOGINS.increment();
+                RESET_NANOS.add(branch);
+                SAVED_NANOS.add(LAST_LOGIN_NANOS.getOrDefault(scenario.user(), branch) - branch);
+            } else {
+                SessionCache.shared().login(driver, scenario.user());
+                long prefix = System.nanoTime() - start;
+                LOGINS.increment();
+                LOGIN_NANOS.add(prefix);
+                LAST_LOGIN_NANOS.put(scenario.user(), prefix);
+            }
+            tracer().end(login);
+            login = null;
+            sessionUser = scenario.user();
+            // The whole journey is a step of its own, so it can have a budget
+            StepMetrics.time("ScenarioEngine.checkout", () -> checkout(scenario));
+            return new Result(scenario, sharing, elapsedMillis(start), null);
+        } catch (AssertionError | WebDriverException e) {
+            sessionUser = null;
+            // A login that failed is still measured; it may be why
+            tracer().end(login);
+            return new Result(scenario, sharing, elapsedMillis(start), e);
+        }
+    }
+
+    public static boolean userAffinity() {
+        return Boolean.parseBoolean(System.getProperty("swag.scenario.affinity", "true"));
+    }
+
+    public static String report() {
+        return String.format(Locale.ROOT,
+                "Scenarios: run=%d, logins=%d (%.1f s), shared logins=%d, resets=%.1f s, saved=%.1f s",
+                SCENARIOS.sum(), LOGINS.sum(), LOGIN_NANOS.sum() / 1e9, SHARED_LOGINS.sum(), RESET_NANOS.sum() / 1e9,
+                SAVED_NANOS.sum() / 1e9);
+    }
+
+    public static boolean isEmpty() {
+        return SCENARIOS.sum() == 0;
+    }
+
+    private void checkout(CheckoutScenario scenario) {
+        expect(driver.getCurrentUrl().contains("inventory.html"), "Should be on inventory page");
+
+        // Fill the cart
+        if (scenario.allItems()) {
+            CartMutationReport added = products.addAllItems();
+            expect(added.verified(), "Every item should be in the cart: " + added);
+            expect(products.getCartBadgeCount() >= 1, "Badge should reflect items added");
+        } else if (scenario.items() == 1) {
+            products.addFirstItemToCart();
+        } else {
+            products.addMultipleItems(scenario.items());
+            expect(products.getCartBadgeCount() >= scenario.items(),
+                    "Badge should reflect " + scenario.items() + " items");
+        }
+
+        // Cart, information, overview, complete
+        transition("cart.html", "Your Cart", products::clickCartIcon);
+        transition("checkout-step-one.html", "Checkout: Your Information", checkout::clickCheckout);
+        CheckoutScenario.Customer customer = scenario.customer();
+        checkout.fillInformation(customer.firstName(), customer.lastName(), customer.postalCode());
+        transition("checkout-step-two.html", "Checkout: Overview", checkout::clickContinue);
+        transition("checkout-complete.html", "Checkout: Complete!", checkout::clickFinish);
+        expect(checkout.isCompleteHeaderDisplayed(), "Completion header should be visible");
+        expect(checkout.getCompleteHeaderText().toLowerCase().contains("thank you"),
+                "Complete header should contain 'Thank you'");
+    }
+
+    // One page phase: from the action that leaves the current page until the next one shows its title
+    private void transition(String page, String title, Runnable action) {
+        PageTracer.Phase phase = tracer().begin(page);
+        try {
+            action.run();
+            awaitPage(page, title);
+        } finally {
+            tracer().end(phase);
+        }
+    }
+
+    private PageTracer tracer() {
+        return DriverManager.tracer(driver);
+    }
+
+    private void awaitPage(String page, String title) {
+        WaitEngine.forStep(driver, "url:" + page, PAGE_TIMEOUT).until(ExpectedConditions.urlContains(page));
+        String actual = products.getTitleText();
+        expect(actual.equals(title), "Expected title '" + title + "' on " + page + " but found '" + actual + "'");
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
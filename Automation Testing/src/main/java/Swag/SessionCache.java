@@ -0,0 +1,143 @@
+package Swag;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs each user in through the UI once, remembers the resulting cookies and localStorage, and injects them into
+ * later sessions so the browser can go straight to {@code inventory.html}.
+ *
+ * A snapshot is dropped when it is older than {@code swag.session.ttlSeconds} (default 540, inside the site's
+ * 600 s {@code session-username} cookie), when one of its cookies has expired, when injecting it does not land on
+ * the Products page, or when {@link #invalidate(String)} is called. In every such case the login falls back to the
+ * real UI flow. {@code -Dswag.session.cache=false} always uses the UI.
+ */
+public class SessionCache {
+
+    private static final SessionCache SHARED = new SessionCache(
+            Duration.ofSeconds(Long.getLong("swag.session.ttlSeconds", 540)),
+            Boolean.parseBoolean(System.getProperty("swag.session.cache", "true")));
+
+    // Login locators
+    private final By userNameLocator = By.id("user-name");
+    private final By passwordLocator = By.name("password");
+    private final By loginButtonLocator = By.id("login-button");
+    private final By productsTitle = By.cssSelector("span.title");
+
+    private final Duration ttl;
+    private final boolean enabled;
+    private final Map<String, SessionSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final LongAdder injected = new LongAdder();
+    private final LongAdder uiLogins = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public SessionCache(Duration ttl, boolean enabled) {
+        this.ttl = ttl;
+        this.enabled = enabled;
+    }
+
+    public static SessionCache shared() {
+        return SHARED;
+    }
+
+    // Land on the Products page as the given user, from a cached session when possible
+    public void login(WebDriver driver, String username) {
+        TestContext.setUser(username);
+        // visual_user runs need every image and font, everyone else runs with the default policy
+        DriverManager.useNetworkPolicy(driver, NetworkPolicy.forUser(username));
+        StepMetrics.time("SessionCache.login", () -> loginAs(driver, username));
+    }
+
+    private void loginAs(WebDriver driver, String username) {
+        SessionSnapshot snapshot = enabled ? snapshots.get(username) : null;
+        if (snapshot != null && (snapshot.ageMillis() > ttl.toMillis() || snapshot.expired())) {
+            invalidate(username);
+            snapshot = null;
+        }
+        if (snapshot != null) {
+            if (inject(driver, snapshot)) {
+                injected.increment();
+                return;
+            }
+            // The cached session was rejected, forget it and log in for real
+            invalidate(username);
+            fallbacks.increment();
+        }
+        loginThroughUi(driver, username);
+        if (enabled) {
+            snapshots.put(username, capture(driver, username));
+        }
+    }
+
+    public void invalidate(String username) {
+        snapshots.remove(username);
+    }
+
+    public void invalidateAll() {
+        snapshots.clear();
+    }
+
+    public String report() {
+        return String.format("Session cache: injected=%d, ui logins=%d, fallbacks=%d, cached users=%d",
+                injected.sum(), uiLogins.sum(), fallbacks.sum(), snapshots.size());
+    }
+
+    private void loginThroughUi(WebDriver driver, String username) {
+        uiLogins.increment();
+        driver.get(AppUnderTest.baseUrl());
+        Map<By, String> credentials = new LinkedHashMap<>();
+        credentials.put(userNameLocator, username);
+        credentials.put(passwordLocator, LoginData.password);
+        new FormFiller(driver).fill("login", credentials);
+        driver.findElement(loginButtonLocator).click();
+        // Wait for Products page
+        WaitEngine.forStep(driver, "SessionCache.loginThroughUi", Duration.ofSeconds(30)) // allow slow/performance_glitch_user
+                .until(d -> d.findElement(productsTitle).isDisplayed());
+    }
+
+    @SuppressWarnings("unchecked")
+    private SessionSnapshot capture(WebDriver driver, String username) {
+        Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(
+                "const s = {};"
+                        + "for (let i = 0; i < window.localStorage.length; i++) {"
+                        + "  const k = window.localStorage.key(i); s[k] = window.localStorage.getItem(k);"
+                        + "}"
+                        + "return s;");
+        Map<String, String> storage = new HashMap<>();
+        if (raw != null) {
+            raw.forEach((k, v) -> storage.put(k, String.valueOf(v)));
+        }
+        return new SessionSnapshot(username, driver.manage().getCookies(), storage, System.currentTimeMillis());
+    }
+
+    private boolean inject(WebDriver driver, SessionSnapshot snapshot) {
+        try {
+            // Cookies and storage can only be set from the application's own origin
+            driver.get(AppUnderTest.baseUrl());
+            for (Cookie cookie : snapshot.cookies()) {
+                driver.manage().addCookie(cookie);
+            }
+            ((JavascriptExecutor) driver).executeScript(
+                    "for (const [k, v] of Object.entries(arguments[0])) { window.localStorage.setItem(k, v); }",
+                    snapshot.localStorage());
+            driver.get(AppUnderTest.baseUrl() + "inventory.html");
+            return WaitEngine.forStep(driver, "SessionCache.inject", Duration.ofSeconds(10))
+                    .until(d -> d.getCurrentUrl().contains("inventory.html") && d.findElement(productsTitle).isDisplayed());
+        } catch (WebDriverException e) {
+            // Includes the TimeoutException of the wait above
+            return false;
+        }
+    }
+}
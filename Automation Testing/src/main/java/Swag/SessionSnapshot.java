@@ -0,0 +1,27 @@
+package Swag;
+
+import org.openqa.selenium.Cookie;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Authenticated browser state captured right after a UI login: the session cookies and the localStorage entries.
+ */
+public record SessionSnapshot(String username, Set<Cookie> cookies, Map<String, String> localStorage, long capturedAtMillis) {
+
+    public SessionSnapshot {
+        cookies = Set.copyOf(cookies);
+        localStorage = Map.copyOf(localStorage);
+    }
+
+    public long ageMillis() {
+        return System.currentTimeMillis() - capturedAtMillis;
+    }
+
+    // Injecting a cookie past its expiry would not authenticate anything
+    public boolean expired() {
+        long now = System.currentTimeMillis();
+        return cookies.stream().anyMatch(c -> c.getExpiry() != null && c.getExpiry().getTime() <= now);
+    }
+}
@@ -0,0 +1,168 @@
+package Swag;
+
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Runs only this JVM's share of the suite when {@code -Dswag.shard.count=N -Dswag.shard.index=i} (0-based) are
+ * set. Test methods and DataProvider rows are the units being split, balanced on their recorded durations by
+ * {@link ShardPlanner}; in a {@code group-by-instances} test, all methods of one {@code @Factory} instance (one user)
+ * stay on one shard, so the user still logs in once. Every run also measures each unit (set-up, test and tear-down) and writes the measurements
+ * to {@code test-durations.tsv} in the report directory; an unsharded run also folds them into the history file.
+ */
+public class ShardListener implements IMethodInterceptor, IDataProviderInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    private final TestDurations history = TestDurations.load(TestDurations.defaultFile());
+    private final TestDurations observed = new TestDurations();
+    private final Map<String, ShardPlanner.Plan> plans = new ConcurrentHashMap<>();
+
+    // Set-up time of the test about to run, and the unit that ran last, per thread
+    private final ThreadLocal<Long> pendingSetUpMillis = ThreadLocal.withInitial(() -> 0L);
+    private final ThreadLocal<String> lastUnit = new ThreadLocal<>();
+
+    public static int shardCount() {
+        return Math.max(1, Integer.getInteger("swag.shard.count", 1));
+    }
+
+    public static int shardIndex() {
+        return Integer.getInteger("swag.shard.index", 0);
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        int shards = shardCount();
+        if (shards <= 1) {
+            return methods;
+        }
+        // Instances that run their methods back to back (one login per user) go to one shard as a whole
+        boolean byInstance = context.getCurrentXmlTest().getGroupByInstances();
+        ShardPlanner.Plan plan = plans.computeIfAbsent(context.getName(), name -> plan(methods, shards, byInstance));
+        List<IMethodInstance> mine = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            // Data-driven methods stay everywhere; their rows are split in intercept(Iterator, ...)
+            if (method.isDataDriven() || shardOf(plan, shardUnit(method, byInstance), shards) == shardIndex()) {
+                mine.add(instance);
+            }
+        }
+        System.out.printf("Shard %d/%d of %s: %d of %d methods, planned %.1f s (makespan %.1f s)%n",
+                shardIndex() + 1, shards, context.getName(), mine.size(), methods.size(),
+                plan.loadMillis()[shardIndex()] / 1000.0, plan.makespanMillis() / 1000.0);
+        return mine;
+    }
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> original, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        int shards = shardCount();
+        ShardPlanner.Plan plan = plans.get(context.getName());
+        if (shards <= 1 || plan == null) {
+            return original;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        original.forEachRemaining(row -> {
+            if (shardOf(plan, unit(method, row), shards) == shardIndex()) {
+                rows.add(row);
+            }
+        });
+        return rows.iterator();
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod invoked, ITestResult result) {
+        long millis = result.getEndMillis() - result.getStartMillis();
+        ITestNGMethod method = result.getMethod();
+        if (invoked.isTestMethod()) {
+            String unit = unit(method, result.getParameters());
+            observed.put(unit, accumulated(unit) + pendingSetUpMillis.get() + millis);
+            pendingSetUpMillis.set(0L);
+            lastUnit.set(unit);
+        } else if (method.isBeforeMethodConfiguration()) {
+            pendingSetUpMillis.set(pendingSetUpMillis.get() + millis);
+        } else if (method.isAfterMethodConfiguration() && lastUnit.get() != null) {
+            observed.put(lastUnit.get(), accumulated(lastUnit.get()) + millis);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (observed.asMap().isEmpty()) {
+            return;
+        }
+        observed.save(StepMetrics.reportDirectory().resolve("test-durations.tsv"));
+        // Shards are folded into the history by ShardResultMerger, so parallel forks never write the same file
+        if (shardCount() <= 1) {
+            history.recordAll(observed);
+            history.save(TestDurations.defaultFile());
+        }
+    }
+
+    // "Class.method" or, for a DataProvider row or a @Factory instance, "Class.method[arg1, arg2]"
+    static String unit(ITestNGMethod method, Object[] parameters) {
+        String name = StepMetricsListener.name(method);
+        if ((parameters == null || parameters.length == 0) && method.getFactoryMethodParamsInfo() != null) {
+            parameters = method.getFactoryMethodParamsInfo().getParameters();
+        }
+        return parameters == null || parameters.length == 0 ? name : name + Arrays.deepToString(parameters);
+    }
+
+    // "Class[arg1, arg2]" for every method of one @Factory instance when instances are kept together
+    static String shardUnit(ITestNGMethod method, boolean byInstance) {
+        if (byInstance && method.getFactoryMethodParamsInfo() != null) {
+            return method.getRealClass().getSimpleName()
+                    + Arrays.deepToString(method.getFactoryMethodParamsInfo().getParameters());
+        }
+        return unit(method, new Object[0]);
+    }
+
+    private long accumulated(String unit) {
+        Long millis = observed.get(unit);
+        return millis == null ? 0 : millis;
+    }
+
+    private ShardPlanner.Plan plan(List<IMethodInstance> methods, int shards, boolean byInstance) {
+        Set<String> units = new LinkedHashSet<>();
+        Map<String, Long> known = history.asMap();
+        // An instance takes as long as its methods did
+        Map<String, Long> durations = new HashMap<>(known);
+        for (IMethodInstance instance : methods) {
+            String name = unit(instance.getMethod(), new Object[0]);
+            if (instance.getMethod().isDataDriven()) {
+                // The rows this method had last time; rows never seen before fall back to hashing
+                units.addAll(known.keySet().stream().filter(u -> u.startsWith(name + "[")).collect(Collectors.toSet()));
+                continue;
+            }
+            String unit = shardUnit(instance.getMethod(), byInstance);
+            units.add(unit);
+            if (!unit.equals(name) && known.containsKey(name)) {
+                durations.merge(unit, known.get(name), Long::sum);
+            }
+        }
+        return ShardPlanner.plan(units, durations, shards);
+    }
+
+    private static int shardOf(ShardPlanner.Plan plan, String unit, int shards) {
+        Integer shard = plan.shardOf().get(unit);
+        return shard != null ? shard : ShardPlanner.fallbackShard(unit, shards);
+    }
+}
@@ -0,0 +1,71 @@
+package Swag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Splits test units into shards with about the same total duration (longest processing time first: the longest
+ * remaining unit always goes to the shard that is least loaded so far). Every JVM computes the same plan from the
+ * same history, so shards agree on who runs what without talking to each other.
+ */
+public class ShardPlanner {
+
+    // Used for units without history until they have run once
+    private static final long DEFAULT_MILLIS = 10_000;
+
+    public record Plan(Map<String, Integer> shardOf, long[] loadMillis) {
+
+        public long makespanMillis() {
+            long max = 0;
+            for (long load : loadMillis) {
+                max = Math.max(max, load);
+            }
+            return max;
+        }
+    }
+
+    private ShardPlanner() {
+    }
+
+    public static Plan plan(Collection<String> units, Map<String, Long> history, int shards) {
+        long fallback = median(history.values());
+        List<String> ordered = new ArrayList<>(units);
+        // Longest first; ties by name so every JVM sorts identically
+        ordered.sort((a, b) -> {
+            int byDuration = Long.compare(history.getOrDefault(b, fallback), history.getOrDefault(a, fallback));
+            return byDuration != 0 ? byDuration : a.compareTo(b);
+        });
+        long[] load = new long[shards];
+        PriorityQueue<Integer> leastLoaded = new PriorityQueue<>((a, b) ->
+                load[a] != load[b] ? Long.compare(load[a], load[b]) : Integer.compare(a, b));
+        for (int i = 0; i < shards; i++) {
+            leastLoaded.add(i);
+        }
+        Map<String, Integer> shardOf = new HashMap<>();
+        for (String unit : ordered) {
+            int shard = leastLoaded.poll();
+            load[shard] += history.getOrDefault(unit, fallback);
+            shardOf.put(unit, shard);
+            leastLoaded.add(shard);
+        }
+        return new Plan(Map.copyOf(shardOf), load);
+    }
+
+    // Shard for a unit that was not in the plan (e.g. a new DataProvider row): stable across JVMs
+    public static int fallbackShard(String unit, int shards) {
+        return Math.floorMod(unit.hashCode(), shards);
+    }
+
+    private static long median(Collection<Long> values) {
+        if (values.isEmpty()) {
+            return DEFAULT_MILLIS;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+}
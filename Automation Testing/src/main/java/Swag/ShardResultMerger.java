@@ -0,0 +1,105 @@
+package Swag;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Combines the output directories of several shards into one report: a single {@code testng-results.xml} holding
+ * every shard's suites with summed totals, and the shards' measured durations folded into the history file.
+ * Works the same for local forks ({@link ShardRunner}) and for directories collected from separate runner nodes:
+ * {@code java Swag.ShardResultMerger <merged-dir> <shard-dir>...}.
+ */
+public class ShardResultMerger {
+
+    private static final String[] TOTALS = {"total", "passed", "failed", "skipped", "ignored"};
+
+    public record Summary(int total, int passed, int failed, int skipped) {
+
+        public boolean successful() {
+            return failed == 0;
+        }
+    }
+
+    private ShardResultMerger() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ShardResultMerger <merged-dir> <shard-dir>...");
+            System.exit(2);
+        }
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Path.of(args[i]));
+        }
+        Summary summary = merge(shards, Path.of(args[0]), TestDurations.defaultFile());
+        System.exit(summary.successful() ? 0 : 1);
+    }
+
+    public static Summary merge(List<Path> shardDirs, Path mergedDir, Path historyFile) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        Document merged = factory.newDocumentBuilder().newDocument();
+        Element root = merged.createElement("testng-results");
+        merged.appendChild(root);
+        int[] totals = new int[TOTALS.length];
+
+        TestDurations history = TestDurations.load(historyFile);
+        for (Path shard : shardDirs) {
+            for (Path results : find(shard, "testng-results.xml")) {
+                Element shardRoot = factory.newDocumentBuilder().parse(results.toFile()).getDocumentElement();
+                for (int i = 0; i < TOTALS.length; i++) {
+                    String value = shardRoot.getAttribute(TOTALS[i]);
+                    totals[i] += value.isEmpty() ? 0 : Integer.parseInt(value);
+                }
+                NodeList suites = shardRoot.getElementsByTagName("suite");
+                for (int i = 0; i < suites.getLength(); i++) {
+                    Node suite = suites.item(i);
+                    if (suite.getParentNode() == shardRoot) {
+                        root.appendChild(merged.importNode(suite, true));
+                    }
+                }
+            }
+            for (Path durations : find(shard, "test-durations.tsv")) {
+                history.recordAll(TestDurations.load(durations));
+            }
+        }
+        for (int i = 0; i < TOTALS.length; i++) {
+            root.setAttribute(TOTALS[i], String.valueOf(totals[i]));
+        }
+
+        Files.createDirectories(mergedDir);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(merged), new StreamResult(mergedDir.resolve("testng-results.xml").toFile()));
+        history.save(historyFile);
+
+        Summary summary = new Summary(totals[0], totals[1], totals[2], totals[3]);
+        System.out.printf("Merged %d shards: total=%d, passed=%d, failed=%d, skipped=%d -> %s%n", shardDirs.size(),
+                summary.total(), summary.passed(), summary.failed(), summary.skipped(), mergedDir.toAbsolutePath());
+        return summary;
+    }
+
+    private static List<Path> find(Path dir, String fileName) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(f -> f.getFileName().toString().equals(fileName)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package Swag;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the suite as {@code swag.shard.count} parallel JVM forks (default 2), each executing its share of the
+ * tests (see {@link ShardListener}), then merges their results with {@link ShardResultMerger}. Every fork gets
+ * the same {@code swag.*} properties as this JVM and an equal part of the machine's cores, and writes its TestNG
+ * output, reports and console log to {@code target/shards/shard-<i>}.
+ *
+ * {@code mvn test-compile exec:exec -Pshards -Dswag.shard.count=4}. To spread shards over runner nodes instead,
+ * run {@code mvn test -Dswag.shard.count=N -Dswag.shard.index=i} on node i and merge the collected output
+ * directories with {@link ShardResultMerger}.
+ */
+public class ShardRunner {
+
+    private ShardRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int shards = Integer.getInteger("swag.shard.count", 2);
+        String suiteXml = args.length > 0 ? args[0] : "src/test/resources/testng.xml";
+        Path outputDir = Path.of(System.getProperty("swag.shard.outputDir", "target/shards"));
+        int threadsPerShard = Math.max(1, ParallelSuiteListener.threadCount() / shards);
+
+        List<Process> forks = new ArrayList<>();
+        List<Path> shardDirs = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < shards; i++) {
+            Path shardDir = outputDir.resolve("shard-" + i);
+            Files.createDirectories(shardDir);
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+                String key = property.getKey().toString();
+                if (key.startsWith("swag.") && !key.startsWith("swag.shard.") && !key.equals("swag.reportDir")) {
+                    command.add("-D" + key + "=" + property.getValue());
+                }
+            }
+            command.add("-Dswag.shard.count=" + shards);
+            command.add("-Dswag.shard.index=" + i);
+            command.add("-Dswag.reportDir=" + shardDir.resolve("reports"));
+            if (System.getProperty("swag.threads") == null) {
+                command.add("-Dswag.threads=" + threadsPerShard);
+            }
+            command.addAll(List.of("org.testng.TestNG", "-d", shardDir.resolve("testng").toString(), suiteXml));
+            forks.add(new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(shardDir.resolve("console.log").toFile())
+                    .start());
+            shardDirs.add(shardDir);
+        }
+        for (int i = 0; i < forks.size(); i++) {
+            int exit = forks.get(i).waitFor();
+            System.out.printf("Shard %d/%d finished with exit code %d (%s)%n", i + 1, shards, exit,
+                    shardDirs.get(i).resolve("console.log"));
+        }
+        System.out.printf("All shards done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        ShardResultMerger.Summary summary = ShardResultMerger.merge(shardDirs, outputDir.resolve("merged"),
+                TestDurations.defaultFile());
+        System.exit(summary.successful() ? 0 : 1);
+    }
+}
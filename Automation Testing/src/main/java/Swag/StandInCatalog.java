@@ -0,0 +1,75 @@
+package Swag;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product catalog served by {@link StandInServer}. The first six products are the ones saucedemo.com sells, with
+ * the same ids, names and prices; larger catalogs are padded with generated products.
+ */
+public class StandInCatalog {
+
+    public record Product(int id, String name, String description, int priceCents) {
+
+        // Same slug saucedemo.com uses in button ids, e.g. "add-to-cart-sauce-labs-backpack"
+        public String slug() {
+            return name.toLowerCase().replaceAll("\\s+", "-");
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", id);
+            json.put("name", name);
+            json.put("desc", description);
+            json.put("price", priceCents);
+            json.put("slug", slug());
+            return json;
+        }
+    }
+
+    private static final List<Product> SAUCE_PRODUCTS = List.of(
+            new Product(4, "Sauce Labs Backpack",
+                    "carry.allTheThings() with the sleek, streamlined Sly Pack that melds uncompromising style with "
+                            + "unequaled laptop and tablet protection.", 2999),
+            new Product(0, "Sauce Labs Bike Light",
+                    "A red light isn't the desired state in testing but it sure helps when riding your bike at night. "
+                            + "Water-resistant with 3 lighting modes, 1 AAA battery included.", 999),
+            new Product(1, "Sauce Labs Bolt T-Shirt",
+                    "Get your testing superhero on with the Sauce Labs bolt T-shirt. From American Apparel, 100% "
+                            + "ringspun combed cotton, heather gray with red bolt.", 1599),
+            new Product(5, "Sauce Labs Fleece Jacket",
+                    "It's not every day that you come across a midweight quarter-zip fleece jacket capable of handling "
+                            + "everything from a relaxing day outdoors to a busy day at the office.", 4999),
+            new Product(2, "Sauce Labs Onesie",
+                    "Rib snap infant onesie for the junior automation engineer in development. Reinforced 3-snap bottom "
+                            + "closure, two-needle hemmed sleeved and bottom won't unravel.", 799),
+            new Product(3, "Test.allTheThings() T-Shirt (Red)",
+                    "This classic Sauce Labs t-shirt is perfect to wear when cozying up to your keyboard to automate a "
+                            + "few tests. Super-soft and comfy ringspun combed cotton.", 1599));
+
+    private StandInCatalog() {
+    }
+
+    // The real six products, followed by generated ones until the catalog has the requested size
+    public static List<Product> of(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Catalog size must be at least 1 but was " + size);
+        }
+        List<Product> products = new ArrayList<>(SAUCE_PRODUCTS.subList(0, Math.min(size, SAUCE_PRODUCTS.size())));
+        for (int id = SAUCE_PRODUCTS.size(); products.size() < size; id++) {
+            String name = String.format("Sauce Labs Sample Item %04d", id);
+            products.add(new Product(id, name, "Generated product used to exercise large catalogs.", 500 + (id * 37) % 5000));
+        }
+        return products;
+    }
+
+    static List<Map<String, Object>> toJson(List<Product> products) {
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (Product product : products) {
+            json.add(product.toJson());
+        }
+        return json;
+    }
+}
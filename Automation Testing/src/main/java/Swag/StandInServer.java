@@ -0,0 +1,248 @@
+package Swag;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-JVM replica of saucedemo.com for offline, low-latency runs. It serves the login, inventory, cart and
+ * checkout pages with the same element ids, classes and {@code data-test} attributes the page objects use, and
+ * reproduces the per-user quirks:
+ * <ul>
+ *     <li>locked_out_user is rejected at login</li>
+ *     <li>performance_glitch_user waits {@code glitchDelayMillis} at login</li>
+ *     <li>problem_user gets broken images, a sort that does nothing, some dead "Add to cart" buttons and a
+ *     last-name field that writes into the first name</li>
+ *     <li>error_user gets a failing sort, some failing "Add to cart" buttons and a "Finish" button that does
+ *     nothing</li>
+ *     <li>visual_user gets a misplaced cart icon</li>
+ * </ul>
+ * All pages are rendered into memory at start-up, so serving them never touches the disk.
+ */
+public class StandInServer {
+
+    private static StandInServer shared;
+    private static Thread sharedShutdownHook;
+
+    private static final Set<String> PAGES = Set.of("/", "/index.html", "/inventory.html", "/cart.html",
+            "/checkout-step-one.html", "/checkout-step-two.html", "/checkout-complete.html");
+
+    // Pending connections the OS queues while every handler is busy, sized for load runs
+    private static final int BACKLOG = 4096;
+
+    private final int port;
+    private final List<StandInCatalog.Product> catalog;
+    private final long glitchDelayMillis;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private byte[] pageBytes;
+    private byte[] scriptBytes;
+    private byte[] styleBytes;
+
+    public StandInServer(int port, int catalogSize, long glitchDelayMillis) {
+        this.port = port;
+        this.catalog = StandInCatalog.of(catalogSize);
+        this.glitchDelayMillis = glitchDelayMillis;
+    }
+
+    // Server configured from swag.local.port, swag.local.catalogSize and swag.local.glitchDelayMillis
+    public static synchronized StandInServer shared() {
+        if (shared == null) {
+            shared = new StandInServer(
+                    Integer.getInteger("swag.local.port", 0),
+                    Integer.getInteger("swag.local.catalogSize", 6),
+                    Long.getLong("swag.local.glitchDelayMillis", 5000));
+            shared.start();
+            sharedShutdownHook = new Thread(shared::stop, "stand-in-server-shutdown");
+            Runtime.getRuntime().addShutdownHook(sharedShutdownHook);
+        }
+        return shared;
+    }
+
+    // Stop the shared server now instead of at exit, freeing its port (see HotRunner#closeLoader)
+    static synchronized void closeShared() {
+        if (shared != null) {
+            Runtime.getRuntime().removeShutdownHook(sharedShutdownHook);
+            shared.stop();
+            shared = null;
+        }
+    }
+
+    public synchronized StandInServer start() {
+        if (server != null) {
+            return this;
+        }
+        scriptBytes = resource("standin/app.js");
+        styleBytes = resource("standin/app.css");
+        pageBytes = renderPage();
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), BACKLOG);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the stand-in server on port " + port, e);
+        }
+        // One virtual thread per exchange, so thousands of simulated users (see LoadGenerator) cost no OS threads
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stand-in-server-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public String baseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("The stand-in server is not running");
+        }
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public List<StandInCatalog.Product> catalog() {
+        return catalog;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            // HEAD is answered like GET without the body (NetworkShield asks for sizes this way)
+            String method = exchange.getRequestMethod().equals("HEAD") ? "GET" : exchange.getRequestMethod();
+            if (method.equals("GET") && PAGES.contains(path)) {
+                send(exchange, 200, "text/html; charset=utf-8", "no-store", pageBytes);
+            } else if (method.equals("GET") && path.equals("/static/app.js")) {
+                send(exchange, 200, "application/javascript; charset=utf-8", "max-age=3600", scriptBytes);
+            } else if (method.equals("GET") && path.equals("/static/app.css")) {
+                send(exchange, 200, "text/css; charset=utf-8", "max-age=3600", styleBytes);
+            } else if (method.equals("GET") && path.startsWith("/static/img/") && path.endsWith(".svg")) {
+                send(exchange, 200, "image/svg+xml", "max-age=3600", image(path));
+            } else if (method.equals("POST") && path.equals("/api/login")) {
+                login(exchange);
+            } else {
+                send(exchange, 404, "text/plain; charset=utf-8", "no-store", "Not Found".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // Credential check behind the login form, including the locked-out and slow users
+    private void login(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String username = form.getOrDefault("username", "");
+        String password = form.getOrDefault("password", "");
+        Map<String, Object> body = new LinkedHashMap<>();
+        int status;
+        if (!Arrays.asList(LoginData.userName).contains(username) || !LoginData.password.equals(password)) {
+            status = 401;
+            body.put("error", "Epic sadface: Username and password do not match any user in this service");
+        } else if (username.equals("locked_out_user")) {
+            status = 403;
+            body.put("error", "Epic sadface: Sorry, this user has been locked out.");
+        } else {
+            if (username.equals("performance_glitch_user")) {
+                pause(glitchDelayMillis);
+            }
+            status = 200;
+            body.put("username", username);
+        }
+        send(exchange, status, "application/json; charset=utf-8", "no-store",
+                new Json().toJson(body).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] renderPage() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("catalog", StandInCatalog.toJson(catalog));
+        String html = "<!DOCTYPE html>\n"
+                + "<html lang=\"en\">\n"
+                + "<head>\n"
+                + "<meta charset=\"utf-8\">\n"
+                + "<title>Swag Labs</title>\n"
+                + "<link rel=\"stylesheet\" href=\"static/app.css\">\n"
+                + "</head>\n"
+                + "<body>\n"
+                + "<div id=\"root\"></div>\n"
+                + "<script>window.__SWAG__ = " + new Json().toJson(config).replace("</", "<\\/") + ";</script>\n"
+                + "<script src=\"static/app.js\"></script>\n"
+                + "</body>\n"
+                + "</html>\n";
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Small generated product pictures; problem_user is pointed at sl-404.svg for every product
+    private byte[] image(String path) {
+        String name = path.substring("/static/img/".length(), path.length() - ".svg".length());
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"240\" height=\"240\">"
+                + "<rect width=\"240\" height=\"240\" fill=\"#e2231a\"/>"
+                + "<text x=\"120\" y=\"130\" font-size=\"24\" text-anchor=\"middle\" fill=\"#fff\">"
+                + name.replaceAll("[^a-zA-Z0-9-]", "") + "</text></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String cacheControl, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            form.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return form;
+    }
+
+    private static byte[] resource(String name) {
+        try (InputStream in = StandInServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing stand-in resource " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of latency histograms keyed by test, user and step. Steps are page-object methods (e.g.
+ * {@code ProductsPage.clickCartIcon}) and individual WebDriver commands (e.g. {@code cmd:WebElement.click}).
+ * {@code -Dswag.metrics=false} turns recording off.
+ */
+public class StepMetrics {
+
+    public record Key(String test, String user, String step) {
+    }
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("swag.metrics", "true"));
+    private static final Map<Key, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private StepMetrics() {
+    }
+
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    public static void record(String step, long nanos) {
+        if (!ENABLED) {
+            return;
+        }
+        Key key = new Key(TestContext.test(), TestContext.user(), step);
+        HISTOGRAMS.computeIfAbsent(key, k -> new LatencyHistogram()).recordNanos(nanos);
+    }
+
+    // Steps that complete are also checked against their PerformanceBudget
+    public static void time(String step, Runnable action) {
+        long start = System.nanoTime();
+        long elapsed;
+        try {
+            action.run();
+        } finally {
+            elapsed = System.nanoTime() - start;
+            record(step, elapsed);
+        }
+        PerformanceBudget.shared().check(step, elapsed);
+    }
+
+    public static <T> T time(String step, Supplier<T> action) {
+        long start = System.nanoTime();
+        long elapsed;
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            elapsed = System.nanoTime() - start;
+            record(step, elapsed);
+        }
+        PerformanceBudget.shared().check(step, elapsed);
+        return result;
+    }
+
+    public static Map<Key, LatencyHistogram> snapshot() {
+        return Map.copyOf(HISTOGRAMS);
+    }
+
+    // One histogram per step, merged over every test and user
+    public static Map<String, LatencyHistogram> byStep() {
+        Map<String, LatencyHistogram> merged = new TreeMap<>();
+        HISTOGRAMS.forEach((key, histogram) -> merged.computeIfAbsent(key.step(), s -> new LatencyHistogram()).add(histogram));
+        return merged;
+    }
+
+    public static void reset() {
+        HISTOGRAMS.clear();
+    }
+
+    // Writes step-latency.csv (per step) and step-latency-detail.csv (per test, user and step) into the directory
+    public static void export(Path directory) {
+        List<String> summary = new ArrayList<>();
+        summary.add("step,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms");
+        byStep().forEach((step, h) -> summary.add(csv(step) + "," + stats(h)));
+
+        List<String> detail = new ArrayList<>();
+        detail.add("test,user,step,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms");
+        HISTOGRAMS.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Key::test).thenComparing(Key::user).thenComparing(Key::step)))
+                .forEach(e -> detail.add(csv(e.getKey().test()) + "," + csv(e.getKey().user()) + ","
+                        + csv(e.getKey().step()) + "," + stats(e.getValue())));
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("step-latency.csv"), summary, StandardCharsets.UTF_8);
+            Files.write(directory.resolve("step-latency-detail.csv"), detail, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Path reportDirectory() {
+        return Path.of(System.getProperty("swag.reportDir", "target/swag-reports"));
+    }
+
+    private static String stats(LatencyHistogram h) {
+        return String.format(Locale.ROOT, "%d,%.3f,%.3f,%.3f,%.3f,%.3f", h.count(), h.meanMillis(),
+                h.percentileMillis(50), h.percentileMillis(95), h.percentileMillis(99), h.maxMillis());
+    }
+
+    private static String csv(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -0,0 +1,62 @@
+package Swag;
+
+import org.testng.IConfigurationListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tags the latency samples with the running test (already during its {@code @BeforeMethod}) and with the user when
+ * it is a DataProvider or {@code @Factory} parameter, and exports the p50/p95/p99 per step when the suite finishes.
+ */
+public class StepMetricsListener implements IConfigurationListener, IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeConfiguration(ITestResult configResult, ITestNGMethod testMethod) {
+        if (testMethod != null && configResult.getMethod().isBeforeMethodConfiguration()) {
+            TestContext.start(name(testMethod), testMethod.getCurrentInvocationCount());
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        TestContext.start(name(testResult.getMethod()), testResult.getMethod().getCurrentInvocationCount());
+        List<Object> parameters = new ArrayList<>(Arrays.asList(testResult.getParameters()));
+        if (testResult.getFactoryParameters() != null) {
+            parameters.addAll(Arrays.asList(testResult.getFactoryParameters()));
+        }
+        for (Object parameter : parameters) {
+            if (parameter instanceof String user && Arrays.asList(LoginData.userName).contains(user)) {
+                TestContext.setUser(user);
+            }
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!StepMetrics.enabled() || StepMetrics.snapshot().isEmpty()) {
+            return;
+        }
+        StepMetrics.export(StepMetrics.reportDirectory());
+        System.out.println("Step latency (ms):");
+        StepMetrics.byStep().forEach((step, h) -> System.out.println(String.format(Locale.ROOT,
+                "  %-45s n=%-6d p50=%9.2f p95=%9.2f p99=%9.2f", step, h.count(),
+                h.percentileMillis(50), h.percentileMillis(95), h.percentileMillis(99))));
+        System.out.println("Written to " + StepMetrics.reportDirectory().toAbsolutePath());
+    }
+
+    static String name(ITestNGMethod method) {
+        return method.getRealClass().getSimpleName() + "." + method.getMethodName();
+    }
+}
@@ -0,0 +1,45 @@
+package Swag;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Prints the framework's own statistics (driver pools and engine latency, session cache, form fills, timeouts,
+ * shared scenario logins, network savings, budget violations, browser resources, page vitals) when a suite finishes.
+ */
+public class SuiteReportListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        DriverPool.all().forEach(pool -> System.out.println(pool.report()));
+        if (!EngineReport.isEmpty()) {
+            System.out.println(EngineReport.summary());
+        }
+        System.out.println(SessionCache.shared().report());
+        System.out.println(TimeoutPolicy.shared().report());
+        if (!FormFiller.isEmpty()) {
+            System.out.println(FormFiller.report());
+        }
+        if (!ScenarioEngine.isEmpty()) {
+            System.out.println(ScenarioEngine.report());
+        }
+        if (!NetworkReport.isEmpty()) {
+            NetworkReport.export(StepMetrics.reportDirectory());
+            System.out.println(NetworkReport.summary());
+        }
+        PerformanceBudget budget = PerformanceBudget.shared();
+        if (!budget.violations().isEmpty()) {
+            budget.export(StepMetrics.reportDirectory());
+            System.out.println("Performance budget violations:");
+            budget.violations().forEach(v -> System.out.println("  " + v));
+        }
+        if (!ResourceReport.isEmpty()) {
+            ResourceReport.export(StepMetrics.reportDirectory());
+            System.out.println(ResourceReport.summary());
+        }
+        if (!VitalsReport.isEmpty()) {
+            VitalsReport.export(StepMetrics.reportDirectory());
+            System.out.println(VitalsReport.summary());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package Swag;
+
+/**
+ * What the current thread is working on: the running test and the user it is logged in as. Used to tag the
+ * latency samples recorded by {@link StepMetrics}.
+ */
+public class TestContext {
+
+    public static final String NONE = "-";
+
+    private static final ThreadLocal<String> TEST = ThreadLocal.withInitial(() -> NONE);
+    private static final ThreadLocal<String> USER = ThreadLocal.withInitial(() -> NONE);
+    private static final ThreadLocal<Integer> INVOCATION = ThreadLocal.withInitial(() -> -1);
+
+    private TestContext() {
+    }
+
+    public static String test() {
+        return TEST.get();
+    }
+
+    public static String user() {
+        return USER.get();
+    }
+
+    // A new invocation resets the user; starting the same one again (set-up, then the method) keeps it. The next
+    // DataProvider row or invocationCount run of a method is a new invocation.
+    public static void start(String test, int invocation) {
+        if (!test.equals(TEST.get()) || invocation != INVOCATION.get()) {
+            TEST.set(test);
+            INVOCATION.set(invocation);
+            USER.set(NONE);
+        }
+    }
+
+    public static void setUser(String user) {
+        USER.set(user);
+    }
+
+    public static void clear() {
+        TEST.remove();
+        USER.remove();
+        INVOCATION.remove();
+    }
+}
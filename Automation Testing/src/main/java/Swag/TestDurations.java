@@ -0,0 +1,89 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Historical duration per test unit (a test method, or one DataProvider row of it), in milliseconds. Stored as a
+ * sorted tab-separated file ({@code millis<TAB>unit}) so it diffs well when committed. New observations are
+ * blended in as an exponentially weighted average, so one slow run does not reshuffle every shard.
+ *
+ * The file is {@code swag.durations.file} (default {@code test-durations.tsv} in the working directory).
+ */
+public class TestDurations {
+
+    // Weight of the newest observation
+    private static final double ALPHA = 0.5;
+
+    private final Map<String, Long> millis = new TreeMap<>();
+
+    public static Path defaultFile() {
+        return Path.of(System.getProperty("swag.durations.file", "test-durations.tsv"));
+    }
+
+    public static TestDurations load(Path file) {
+        TestDurations durations = new TestDurations();
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && !line.startsWith("#")) {
+                    durations.millis.put(line.substring(tab + 1), Long.parseLong(line.substring(0, tab).trim()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NumberFormatException e) {
+            // A corrupt history only costs balance, never the run
+            durations.millis.clear();
+        }
+        return durations;
+    }
+
+    public synchronized Map<String, Long> asMap() {
+        return Map.copyOf(millis);
+    }
+
+    public synchronized Long get(String unit) {
+        return millis.get(unit);
+    }
+
+    // Replace the stored value with the observation, e.g. for a run's raw measurements
+    public synchronized void put(String unit, long observedMillis) {
+        millis.put(unit, observedMillis);
+    }
+
+    public synchronized void record(String unit, long observedMillis) {
+        millis.merge(unit, observedMillis, (old, now) -> Math.round(ALPHA * now + (1 - ALPHA) * old));
+    }
+
+    public synchronized void recordAll(TestDurations observed) {
+        observed.asMap().forEach(this::record);
+    }
+
+    // Written to a temporary file first, so a crash never leaves half a history behind
+    public synchronized void save(Path file) {
+        List<String> lines = new ArrayList<>();
+        lines.add("# millis\tunit");
+        millis.forEach((unit, ms) -> lines.add(ms + "\t" + unit));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "durations", ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * What each test touched in its last run and whether it passed, for {@link IncrementalListener}. A dependency is
+ * a method of this package the test's browser calls went through, with the {@link BytecodeFingerprint} it had then
+ * ({@code M Swag.CheckoutPage#fillInformation=3f2a...}), or a locator and the class declaring it
+ * ({@code L Swag.CheckoutPage#By.id: first-name}). A test has to run again when it is new, did not pass last time,
+ * touched no browser at all (nothing to compare, so never skipped), or when one of its methods is compiled
+ * differently now or its class no longer declares the locator.
+ *
+ * Stored as a sorted tab-separated file ({@code test<TAB>green|red<TAB>dependency...}); the file is
+ * {@code swag.incremental.file} (default {@code test-impact.tsv} in the working directory).
+ */
+public class TestImpact {
+
+    public record Entry(boolean green, Set<String> dependencies) {
+    }
+
+    private static final String METHOD = "M ";
+    private static final String LOCATOR = "L ";
+
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    public static boolean enabled() {
+        return Boolean.getBoolean("swag.incremental");
+    }
+
+    public static Path defaultFile() {
+        return Path.of(System.getProperty("swag.incremental.file", "test-impact.tsv"));
+    }
+
+    public static String method(String className, String methodName) {
+        return METHOD + className + "#" + methodName;
+    }
+
+    public static String locator(String className, String locator) {
+        return LOCATOR + className + "#" + locator;
+    }
+
+    public static TestImpact load(Path file) {
+        TestImpact impact = new TestImpact();
+        if (!Files.isRegularFile(file)) {
+            return impact;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (fields.length >= 2 && !line.startsWith("#")) {
+                    impact.entries.put(fields[0], new Entry(fields[1].equals("green"),
+                            Set.copyOf(Arrays.asList(fields).subList(2, fields.length))));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return impact;
+    }
+
+    public synchronized Entry get(String test) {
+        return entries.get(test);
+    }
+
+    // Stamp the dependencies of a method with its current fingerprint and keep them as the test's last run
+    public synchronized void record(String test, boolean green, Set<String> dependencies) {
+        Set<String> stamped = new TreeSet<>();
+        for (String dependency : dependencies) {
+            if (dependency.startsWith(METHOD)) {
+                int hash = dependency.indexOf('#');
+                String print = BytecodeFingerprint.of(dependency.substring(METHOD.length(), hash)).methods()
+                        .get(dependency.substring(hash + 1));
+                stamped.add(print == null ? dependency : dependency + "=" + print);
+            } else {
+                stamped.add(dependency);
+            }
+        }
+        entries.put(test, new Entry(green, stamped));
+    }
+
+    // Why the test has to run again, or null when nothing it depends on changed since it last passed
+    public synchronized String reasonToRun(String test) {
+        Entry entry = entries.get(test);
+        if (entry == null) {
+            return "new";
+        }
+        if (!entry.green()) {
+            return "failed last time";
+        }
+        if (entry.dependencies().isEmpty()) {
+            return "no recorded dependencies";
+        }
+        for (String dependency : entry.dependencies()) {
+            String reason = changed(dependency);
+            if (reason != null) {
+                return reason;
+            }
+        }
+        return null;
+    }
+
+    private static String changed(String dependency) {
+        int hash = dependency.indexOf('#');
+        if (hash < 0) {
+            return null;
+        }
+        String className = dependency.substring(2, hash);
+        String member = dependency.substring(hash + 1);
+        BytecodeFingerprint.ClassPrint print = BytecodeFingerprint.of(className);
+        if (dependency.startsWith(LOCATOR)) {
+            return print.locators().contains(member) ? null : className + " no longer declares " + member;
+        }
+        int equals = member.lastIndexOf('=');
+        String name = equals < 0 ? member : member.substring(0, equals);
+        String now = print.methods().get(name);
+        if (equals < 0 || now == null || !now.equals(member.substring(equals + 1))) {
+            return className + "#" + name + " changed";
+        }
+        return null;
+    }
+
+    // Written to a temporary file first, so a crash never leaves half a map behind
+    public synchronized void save(Path file) {
+        List<String> lines = new ArrayList<>();
+        lines.add("# test\tgreen|red\tdependency...");
+        entries.forEach((test, entry) -> lines.add(test + "\t" + (entry.green() ? "green" : "red")
+                + entry.dependencies().stream().sorted().map(d -> "\t" + d).reduce("", String::concat)));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "impact", ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
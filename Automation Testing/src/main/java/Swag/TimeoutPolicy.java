@@ -0,0 +1,139 @@
+package Swag;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wait deadlines learned from earlier runs instead of fixed literals. Every named wait records how long it took as
+ * step {@code wait:<name>}, and {@link PerformanceHistory} keeps that per user. The deadline of a wait is
+ * {@code swag.timeout.multiplier} (default 3) times the highest p99 the same user needed over the last
+ * {@code swag.timeout.learnRuns} (default 5) runs, clamped to {@code swag.timeout.floorMillis} (default 2000) and
+ * {@code swag.timeout.ceilingMillis} (default 60000). Until at least {@code swag.timeout.minSamples} (default 5)
+ * waits have been seen, the caller's default is used. {@code -Dswag.timeout.adaptive=false} always uses the default.
+ *
+ * Waits are learned per deployment and browser engine ({@link #qualify}), so milliseconds measured against the
+ * stand-in never size a deadline for the public site. A wait that timed out is recorded too, with the time it
+ * waited: the real duration is only known to be longer (a censored sample), but it lifts the p99 so the next
+ * deadline grows instead of timing out again.
+ *
+ * A successful wait that used more than {@code swag.timeout.warnRatio} (default 0.8) of its budget is logged, so a
+ * step drifting towards its deadline shows up before it starts failing.
+ */
+public class TimeoutPolicy {
+
+    public static final String STEP_PREFIX = "wait:";
+
+    private static volatile TimeoutPolicy shared;
+
+    private final PerformanceHistory history;
+    private final boolean adaptive;
+    private final double multiplier;
+    private final Duration floor;
+    private final Duration ceiling;
+    private final int learnRuns;
+    private final int minSamples;
+    private final double warnRatio;
+
+    // Deadlines are computed once per user and wait; the history does not change during a run
+    private final Map<PerformanceHistory.UserStep, Duration> learned = new ConcurrentHashMap<>();
+    private final LongAdder learnedWaits = new LongAdder();
+    private final LongAdder defaultWaits = new LongAdder();
+    private final LongAdder nearBudget = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public TimeoutPolicy(PerformanceHistory history, boolean adaptive, double multiplier, Duration floor,
+                         Duration ceiling, int learnRuns, int minSamples, double warnRatio) {
+        this.history = history;
+        this.adaptive = adaptive;
+        this.multiplier = multiplier;
+        this.floor = floor;
+        this.ceiling = ceiling;
+        this.learnRuns = learnRuns;
+        this.minSamples = minSamples;
+        this.warnRatio = warnRatio;
+    }
+
+    public static TimeoutPolicy shared() {
+        TimeoutPolicy policy = shared;
+        if (policy == null) {
+            synchronized (TimeoutPolicy.class) {
+                policy = shared;
+                if (policy == null) {
+                    policy = fromSystemProperties(PerformanceHistory.open(PerformanceHistory.defaultFile()));
+                    shared = policy;
+                }
+            }
+        }
+        return policy;
+    }
+
+    public static TimeoutPolicy fromSystemProperties(PerformanceHistory history) {
+        return new TimeoutPolicy(history,
+                Boolean.parseBoolean(System.getProperty("swag.timeout.adaptive", "true")),
+                Double.parseDouble(System.getProperty("swag.timeout.multiplier", "3")),
+                Duration.ofMillis(Long.getLong("swag.timeout.floorMillis", 2000)),
+                Duration.ofMillis(Long.getLong("swag.timeout.ceilingMillis", 60000)),
+                Integer.getInteger("swag.timeout.learnRuns", 5),
+                Integer.getInteger("swag.timeout.minSamples", 5),
+                Double.parseDouble(System.getProperty("swag.timeout.warnRatio", "0.8")));
+    }
+
+    // Deadline for the user's wait, or the fallback while there is not enough history
+    public Duration timeout(String user, String wait, Duration fallback) {
+        Duration timeout = adaptive ? learned.computeIfAbsent(
+                new PerformanceHistory.UserStep(user, STEP_PREFIX + wait), this::learn) : Duration.ZERO;
+        if (timeout.isZero()) {
+            defaultWaits.increment();
+            return fallback;
+        }
+        learnedWaits.increment();
+        return timeout;
+    }
+
+    // "url:cart.html [stand-in/headless]": the wait as learned for the current deployment and this thread's engine
+    public static String qualify(String wait) {
+        return wait + " [" + AppUnderTest.target() + "/" + BrowserEngine.selected().id() + "]";
+    }
+
+    // Called after a wait succeeded
+    public void observe(String user, String wait, Duration budget, long elapsedNanos) {
+        StepMetrics.record(STEP_PREFIX + wait, elapsedNanos);
+        if (elapsedNanos > budget.toNanos() * warnRatio) {
+            nearBudget.increment();
+            System.out.printf(Locale.ROOT, "Timeout budget: %s waited %.0f ms for %s, %.0f%% of %d ms%n",
+                    user, elapsedNanos / 1e6, wait, 100.0 * elapsedNanos / budget.toNanos(), budget.toMillis());
+        }
+    }
+
+    // Called when a wait ran out of time; it took at least elapsedNanos
+    public void observeTimeout(String user, String wait, Duration budget, long elapsedNanos) {
+        StepMetrics.record(STEP_PREFIX + wait, elapsedNanos);
+        timedOut.increment();
+        System.out.printf(Locale.ROOT, "Timeout budget: %s gave up on %s after %d ms%n", user, wait, budget.toMillis());
+    }
+
+    public String report() {
+        return String.format("Timeouts: learned=%d, default=%d, near budget=%d, timed out=%d",
+                learnedWaits.sum(), defaultWaits.sum(), nearBudget.sum(), timedOut.sum());
+    }
+
+    // Zero when the history is too thin to learn from
+    private Duration learn(PerformanceHistory.UserStep key) {
+        List<PerformanceHistory.StepStats> past = history.history(key.user(), key.step());
+        long samples = 0;
+        long p99Micros = 0;
+        for (int i = past.size() - 1; i >= 0 && i >= past.size() - learnRuns; i--) {
+            samples += past.get(i).count();
+            p99Micros = Math.max(p99Micros, past.get(i).p99Micros());
+        }
+        if (samples < minSamples) {
+            return Duration.ZERO;
+        }
+        long millis = Math.round(p99Micros * multiplier / 1000);
+        return Duration.ofMillis(Math.min(ceiling.toMillis(), Math.max(floor.toMillis(), millis)));
+    }
+}
@@ -0,0 +1,93 @@
+package Swag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Every page phase measured by a {@link PageTracer}. The phases of the running test are also kept per thread until
+ * {@link PageTraceListener} attaches them to the test's result; the summary puts the users side by side per phase.
+ */
+public class VitalsReport {
+
+    private static final Queue<PageTracer.Vitals> ALL = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<List<PageTracer.Vitals>> PENDING = ThreadLocal.withInitial(ArrayList::new);
+
+    private VitalsReport() {
+    }
+
+    public static void record(PageTracer.Vitals vitals) {
+        ALL.add(vitals);
+        PENDING.get().add(vitals);
+    }
+
+    // The phases recorded on this thread since the last call
+    public static List<PageTracer.Vitals> drain() {
+        List<PageTracer.Vitals> pending = List.copyOf(PENDING.get());
+        PENDING.remove();
+        return pending;
+    }
+
+    public static List<PageTracer.Vitals> snapshot() {
+        return List.copyOf(ALL);
+    }
+
+    public static boolean isEmpty() {
+        return ALL.isEmpty();
+    }
+
+    // Medians per phase and user; values a browser did not report are left out, "-" when none are left
+    public static String summary() {
+        Map<String, Map<String, List<PageTracer.Vitals>>> byPhase = new TreeMap<>();
+        for (PageTracer.Vitals v : ALL) {
+            byPhase.computeIfAbsent(v.phase(), p -> new TreeMap<>())
+                    .computeIfAbsent(v.user(), u -> new ArrayList<>()).add(v);
+        }
+        StringBuilder out = new StringBuilder("Page vitals (median ms, CLS unitless):");
+        byPhase.forEach((phase, byUser) -> {
+            out.append(System.lineSeparator()).append("  ").append(phase);
+            byUser.forEach((user, phases) -> out.append(String.format(Locale.ROOT,
+                    "%n    %-26s n=%-4d duration=%8s ttfb=%7s lcp=%7s inp=%7s cls=%6s long tasks=%7s", user, phases.size(),
+                    median(phases, PageTracer.Vitals::durationMillis, "%.0f"),
+                    median(phases, PageTracer.Vitals::ttfbMillis, "%.0f"), median(phases, PageTracer.Vitals::lcpMillis, "%.0f"),
+                    median(phases, PageTracer.Vitals::inpMillis, "%.0f"), median(phases, PageTracer.Vitals::cls, "%.3f"),
+                    median(phases, PageTracer.Vitals::longTaskMillis, "%.0f"))));
+        });
+        return out.toString();
+    }
+
+    // page-vitals.csv with one row per measured phase
+    public static void export(Path directory) {
+        List<String> lines = new ArrayList<>();
+        lines.add("test,user,phase,duration_ms,navigation,ttfb_ms,dom_content_loaded_ms,load_ms,lcp_ms,cls,inp_ms,"
+                + "long_task_ms,resources,transfer_bytes,trace");
+        ALL.stream()
+                .sorted(Comparator.comparing(PageTracer.Vitals::test).thenComparing(PageTracer.Vitals::user))
+                .forEach(v -> lines.add(String.format(Locale.ROOT, "%s,%s,%s,%.1f,%b,%.1f,%.1f,%.1f,%.1f,%.4f,%.1f,%.1f,%d,%d,%s",
+                        v.test(), v.user(), v.phase(), v.durationMillis(), v.navigation(), v.ttfbMillis(),
+                        v.domContentLoadedMillis(), v.loadMillis(), v.lcpMillis(), v.cls(), v.inpMillis(),
+                        v.longTaskMillis(), v.resources(), v.transferBytes(), v.trace() == null ? "" : v.trace())));
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("page-vitals.csv"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String median(List<PageTracer.Vitals> phases, ToDoubleFunction<PageTracer.Vitals> value, String format) {
+        double[] known = phases.stream().mapToDouble(value).filter(d -> d >= 0).sorted().toArray();
+        return known.length == 0 ? "-" : String.format(Locale.ROOT, format, known[known.length / 2]);
+    }
+}
@@ -0,0 +1,151 @@
+package Swag;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Wait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Event-driven replacement for {@code WebDriverWait}/{@code FluentWait}. Between two evaluations of the condition
+ * it blocks on one async script that returns as soon as the page changes: a DOM mutation, a URL change (including
+ * history API navigation) or the page unloading. Conditions are therefore re-checked right after something
+ * happened instead of on a fixed polling interval, and no commands are sent while the page is idle.
+ *
+ * Any {@code ExpectedConditions} works unchanged, e.g. {@code new WaitEngine(driver, timeout).until(
+ * ExpectedConditions.urlContains("cart.html"))}. When the driver cannot run async scripts, or with
+ * {@code -Dswag.wait.mode=polling}, it falls back to polling every {@code swag.wait.pollMillis} (default 50 ms).
+ *
+ * Waits created with {@link #forStep} take their deadline from the {@link TimeoutPolicy} and report how long they
+ * took to it (or that they timed out), so the next run can size the deadline from this user's actual latency.
+ */
+public class WaitEngine implements Wait<WebDriver> {
+
+    // Longest single block in the page, kept well below the driver's default 30 s script timeout
+    private static final long MAX_SLICE_MILLIS = 1000;
+
+    // Every document gets one observer on its first wait, counting DOM mutations and navigation events for as long as
+    // it lives. A wait passes the state it last saw (observer id, count and URL) and returns at once when the page
+    // moved on since, so a change between the condition check and this script is never missed. Returns the state.
+    private static final String AWAIT_CHANGE =
+            "const done = arguments[arguments.length - 1];"
+                    + "const since = arguments[1];"
+                    + "let w = window.__swagWait;"
+                    + "if (!w) {"
+                    + "  w = window.__swagWait = {id: Math.random().toString(36).slice(2), count: 0, waiting: new Set()};"
+                    + "  const bump = () => { w.count++; w.waiting.forEach(f => f()); };"
+                    + "  new MutationObserver(bump).observe(document,"
+                    + "      {subtree: true, childList: true, attributes: true, characterData: true});"
+                    + "  ['popstate', 'hashchange', 'pagehide'].forEach(e => window.addEventListener(e, bump));"
+                    + "}"
+                    + "const state = () => w.id + ':' + w.count + ' ' + window.location.href;"
+                    + "if (since === null || state() !== since) { done(state()); return; }"
+                    + "let finished = false;"
+                    + "let timer = null;"
+                    + "const finish = () => {"
+                    + "  if (finished) return;"
+                    + "  finished = true;"
+                    + "  w.waiting.delete(finish);"
+                    + "  clearTimeout(timer);"
+                    + "  done(state());"
+                    + "};"
+                    + "w.waiting.add(finish);"
+                    // pushState/replaceState fire no event, so the URL is also watched once per frame
+                    + "const watchUrl = () => {"
+                    + "  if (finished) return;"
+                    + "  if (state() !== since) { finish(); return; }"
+                    + "  window.requestAnimationFrame(watchUrl);"
+                    + "};"
+                    + "window.requestAnimationFrame(watchUrl);"
+                    + "timer = setTimeout(finish, arguments[0]);";
+
+    private final WebDriver driver;
+    private final Duration timeout;
+    private final Duration pollInterval;
+    private final String step;
+    private boolean eventDriven;
+    // Page state seen by the last AWAIT_CHANGE, null before the first one and after a navigation broke one off
+    private String seen;
+
+    public WaitEngine(WebDriver driver, Duration timeout) {
+        this(driver, timeout, null);
+    }
+
+    private WaitEngine(WebDriver driver, Duration timeout, String step) {
+        this.driver = driver;
+        this.timeout = timeout;
+        this.step = step;
+        this.pollInterval = Duration.ofMillis(Long.getLong("swag.wait.pollMillis", 50));
+        this.eventDriven = driver instanceof JavascriptExecutor
+                && !"polling".equalsIgnoreCase(System.getProperty("swag.wait.mode", "events"));
+    }
+
+    // A named wait whose deadline is learned per user, with fallback as long as there is no history
+    public static WaitEngine forStep(WebDriver driver, String step, Duration fallback) {
+        String wait = TimeoutPolicy.qualify(step);
+        return new WaitEngine(driver, TimeoutPolicy.shared().timeout(TestContext.user(), wait, fallback), wait);
+    }
+
+    @Override
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        RuntimeException lastError = null;
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && (!(value instanceof Boolean) || Boolean.TRUE.equals(value))) {
+                    if (step != null) {
+                        TimeoutPolicy.shared().observe(TestContext.user(), step, timeout, System.nanoTime() - start);
+                    }
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                // Same exceptions WebDriverWait ignores: the element is not there (yet)
+                lastError = e;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                if (step != null) {
+                    TimeoutPolicy.shared().observeTimeout(TestContext.user(), step, timeout, System.nanoTime() - start);
+                }
+                throw new TimeoutException(String.format(
+                        "Expected condition failed: waiting for %s%s (tried for %d ms with %s wait)",
+                        condition, step == null ? "" : " in " + step, timeout.toMillis(),
+                        eventDriven ? "event-driven" : "polling"), lastError);
+            }
+            awaitChange(Math.min(remaining / 1_000_000, MAX_SLICE_MILLIS));
+        }
+    }
+
+    // Block until the page changes or the slice elapses. Without a state seen before, the script only installs the
+    // counter and returns it, and the condition is checked once more against that baseline.
+    private void awaitChange(long sliceMillis) {
+        if (eventDriven) {
+            try {
+                Object state = ((JavascriptExecutor) driver).executeAsyncScript(AWAIT_CHANGE, Math.max(1, sliceMillis), seen);
+                seen = state == null ? null : state.toString();
+                return;
+            } catch (UnsupportedCommandException e) {
+                // This driver cannot run async scripts, poll from now on
+                eventDriven = false;
+            } catch (WebDriverException e) {
+                // A navigation unloaded the document while the script was waiting: that is a change too
+                seen = null;
+                return;
+            }
+        }
+        try {
+            Thread.sleep(Math.min(sliceMillis, pollInterval.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting", e);
+        }
+    }
+}
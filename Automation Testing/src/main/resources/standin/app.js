@@ -0,0 +1,534 @@
+// Swag Labs stand-in: renders the saucedemo.com pages the page objects drive, using the same ids, classes and
+// data-test attributes. Cart state lives in localStorage ("cart-contents") and the session in the
+// "session-username" cookie, exactly like the real site.
+(function () {
+    'use strict';
+
+    var CART_KEY = 'cart-contents';
+    var SESSION_COOKIE = 'session-username';
+    var LOGIN_ERROR_KEY = 'swag-login-error';
+
+    var catalog = window.__SWAG__.catalog;
+    var root = document.getElementById('root');
+    var page = location.pathname.replace(/^.*\//, '') || 'index.html';
+
+    // ---------------------------------------------------------------- helpers
+
+    function el(tag, attrs, children) {
+        var node = document.createElement(tag);
+        Object.keys(attrs || {}).forEach(function (name) {
+            if (name === 'text') {
+                node.textContent = attrs[name];
+            } else if (name === 'onclick' || name === 'onchange' || name === 'onsubmit' || name === 'oninput') {
+                node.addEventListener(name.substring(2), attrs[name]);
+            } else {
+                node.setAttribute(name, attrs[name]);
+            }
+        });
+        (children || []).forEach(function (child) {
+            node.appendChild(typeof child === 'string' ? document.createTextNode(child) : child);
+        });
+        return node;
+    }
+
+    function money(cents) {
+        return '$' + (cents / 100).toFixed(2);
+    }
+
+    function productById(id) {
+        for (var i = 0; i < catalog.length; i++) {
+            if (catalog[i].id === id) {
+                return catalog[i];
+            }
+        }
+        return null;
+    }
+
+    // problem_user and error_user cannot add every other product (Bolt T-Shirt, Fleece Jacket, Test.allTheThings())
+    function isFaulty(product) {
+        return product.id % 2 === 1;
+    }
+
+    // ---------------------------------------------------------------- session and cart
+
+    function currentUser() {
+        var match = document.cookie.match(new RegExp('(?:^|; )' + SESSION_COOKIE + '=([^;]*)'));
+        return match && match[1] ? decodeURIComponent(match[1]) : null;
+    }
+
+    function startSession(username) {
+        document.cookie = SESSION_COOKIE + '=' + encodeURIComponent(username) + '; path=/; max-age=600';
+    }
+
+    function endSession() {
+        document.cookie = SESSION_COOKIE + '=; path=/; max-age=0';
+    }
+
+    function cart() {
+        try {
+            return JSON.parse(window.localStorage.getItem(CART_KEY)) || [];
+        } catch (e) {
+            return [];
+        }
+    }
+
+    function saveCart(ids) {
+        if (ids.length) {
+            window.localStorage.setItem(CART_KEY, JSON.stringify(ids));
+        } else {
+            window.localStorage.removeItem(CART_KEY);
+        }
+    }
+
+    function cartProducts() {
+        return cart().map(productById).filter(function (p) {
+            return p !== null;
+        });
+    }
+
+    // ---------------------------------------------------------------- login page
+
+    function renderLogin() {
+        var errorContainer = el('div', {'class': 'error-message-container'});
+        var userName = el('input', {
+            'class': 'input_error form_input', placeholder: 'Username', type: 'text', 'data-test': 'username',
+            id: 'user-name', name: 'user-name', autocorrect: 'off', autocapitalize: 'none'
+        });
+        var password = el('input', {
+            'class': 'input_error form_input', placeholder: 'Password', type: 'password', 'data-test': 'password',
+            id: 'password', name: 'password', autocorrect: 'off', autocapitalize: 'none'
+        });
+
+        function showError(message) {
+            errorContainer.className = 'error-message-container error';
+            errorContainer.innerHTML = '';
+            errorContainer.appendChild(el('h3', {'data-test': 'error'}, [
+                el('button', {'class': 'error-button', 'data-test': 'error-button', 'aria-label': 'close'}),
+                message
+            ]));
+        }
+
+        function submit(event) {
+            event.preventDefault();
+            if (!userName.value) {
+                showError('Epic sadface: Username is required');
+                return;
+            }
+            if (!password.value) {
+                showError('Epic sadface: Password is required');
+                return;
+            }
+            fetch('api/login', {
+                method: 'POST',
+                headers: {'Content-Type': 'application/x-www-form-urlencoded'},
+                body: 'username=' + encodeURIComponent(userName.value) + '&password=' + encodeURIComponent(password.value)
+            }).then(function (response) {
+                return response.json().then(function (body) {
+                    if (response.ok) {
+                        startSession(body.username);
+                        location.href = 'inventory.html';
+                    } else {
+                        showError(body.error);
+                    }
+                });
+            });
+        }
+
+        root.appendChild(el('div', {'class': 'login_container'}, [
+            el('div', {'class': 'login_logo', text: 'Swag Labs'}),
+            el('div', {'class': 'login_wrapper'}, [
+                el('form', {onsubmit: submit}, [
+                    el('div', {'class': 'form_group'}, [userName]),
+                    el('div', {'class': 'form_group'}, [password]),
+                    errorContainer,
+                    el('input', {
+                        type: 'submit', 'class': 'submit-button btn_action', 'data-test': 'login-button',
+                        id: 'login-button', name: 'login-button', value: 'Login'
+                    })
+                ])
+            ])
+        ]));
+
+        var pending = window.sessionStorage.getItem(LOGIN_ERROR_KEY);
+        if (pending) {
+            window.sessionStorage.removeItem(LOGIN_ERROR_KEY);
+            showError(pending);
+        }
+    }
+
+    // ---------------------------------------------------------------- shared header
+
+    function updateBadge() {
+        var link = document.querySelector('.shopping_cart_link');
+        var badge = link.querySelector('.shopping_cart_badge');
+        var count = cart().length;
+        if (count === 0) {
+            if (badge) {
+                link.removeChild(badge);
+            }
+            return;
+        }
+        if (!badge) {
+            badge = el('span', {'class': 'shopping_cart_badge', 'data-test': 'shopping-cart-badge'});
+            link.appendChild(badge);
+        }
+        badge.textContent = String(count);
+    }
+
+    function renderHeader(user, title, extras) {
+        var menu = el('div', {'class': 'bm-menu-wrap', hidden: 'hidden', 'aria-hidden': 'true'}, [
+            el('nav', {'class': 'bm-item-list'}, [
+                el('a', {id: 'inventory_sidebar_link', 'class': 'bm-item menu-item', href: 'inventory.html',
+                    'data-test': 'inventory-sidebar-link', text: 'All Items'}),
+                el('a', {id: 'about_sidebar_link', 'class': 'bm-item menu-item', href: 'https://saucelabs.com/',
+                    'data-test': 'about-sidebar-link', text: 'About'}),
+                el('a', {id: 'logout_sidebar_link', 'class': 'bm-item menu-item', href: '#',
+                    'data-test': 'logout-sidebar-link', text: 'Logout', onclick: function (event) {
+                        event.preventDefault();
+                        endSession();
+                        location.href = './';
+                    }}),
+                el('a', {id: 'reset_sidebar_link', 'class': 'bm-item menu-item', href: '#',
+                    'data-test': 'reset-sidebar-link', text: 'Reset App State', onclick: function (event) {
+                        event.preventDefault();
+                        saveCart([]);
+                        updateBadge();
+                        document.querySelectorAll('button.btn_inventory').forEach(function (button) {
+                            setButtonState(button, productById(Number(button.getAttribute('data-product-id'))), false);
+                        });
+                    }})
+            ]),
+            el('div', {'class': 'bm-cross-button'}, [
+                el('button', {type: 'button', id: 'react-burger-cross-btn', text: 'Close Menu', onclick: function () {
+                    menu.hidden = true;
+                    menu.setAttribute('aria-hidden', 'true');
+                }})
+            ])
+        ]);
+
+        var cartContainer = el('div', {
+            id: 'shopping_cart_container',
+            'class': user === 'visual_user' ? 'shopping_cart_container visual_failure' : 'shopping_cart_container'
+        }, [el('a', {'class': 'shopping_cart_link', 'data-test': 'shopping-cart-link', href: 'cart.html'})]);
+
+        root.appendChild(el('div', {'class': 'primary_header', 'data-test': 'primary-header'}, [
+            el('div', {id: 'menu_button_container'}, [
+                el('div', {'class': 'bm-burger-button'}, [
+                    el('button', {type: 'button', id: 'react-burger-menu-btn', text: 'Open Menu', onclick: function () {
+                        menu.hidden = false;
+                        menu.setAttribute('aria-hidden', 'false');
+                    }})
+                ]),
+                menu
+            ]),
+            el('div', {'class': 'header_label'}, [el('div', {'class': 'app_logo', text: 'Swag Labs'})]),
+            cartContainer
+        ]));
+        root.appendChild(el('div', {'class': 'header_secondary_container', 'data-test': 'secondary-header'},
+            [el('span', {'class': 'title', 'data-test': 'title', text: title})].concat(extras || [])));
+        updateBadge();
+    }
+
+    function renderFooter() {
+        root.appendChild(el('footer', {'class': 'footer', 'data-test': 'footer'}, [
+            el('div', {'class': 'footer_copy', 'data-test': 'footer-copy',
+                text: '© 2025 Sauce Labs. All Rights Reserved. Terms of Service | Privacy Policy'})
+        ]));
+    }
+
+    // ---------------------------------------------------------------- inventory page
+
+    // Toggle a product button in place, so element references held by tests stay valid
+    function setButtonState(button, product, inCart) {
+        var id = (inCart ? 'remove-' : 'add-to-cart-') + product.slug;
+        button.id = id;
+        button.setAttribute('name', id);
+        button.setAttribute('data-test', id);
+        button.className = 'btn ' + (inCart ? 'btn_secondary' : 'btn_primary') + ' btn_small btn_inventory';
+        button.textContent = inCart ? 'Remove' : 'Add to cart';
+    }
+
+    function toggleProduct(user, product, button) {
+        var ids = cart();
+        var index = ids.indexOf(product.id);
+        if (index < 0) {
+            if (user === 'problem_user' && isFaulty(product)) {
+                return;
+            }
+            if (user === 'error_user' && isFaulty(product)) {
+                console.error('Failed to add item to the cart.');
+                return;
+            }
+            ids.push(product.id);
+        } else {
+            ids.splice(index, 1);
+        }
+        saveCart(ids);
+        setButtonState(button, product, index < 0);
+        updateBadge();
+    }
+
+    var SORTS = {
+        az: function (a, b) { return a.name < b.name ? -1 : a.name > b.name ? 1 : 0; },
+        za: function (a, b) { return a.name < b.name ? 1 : a.name > b.name ? -1 : 0; },
+        lohi: function (a, b) { return a.price - b.price || a.id - b.id; },
+        hilo: function (a, b) { return b.price - a.price || a.id - b.id; }
+    };
+
+    function renderInventory(user) {
+        var list = el('div', {'class': 'inventory_list', 'data-test': 'inventory-list'});
+
+        function fill(order) {
+            var inCart = cart();
+            list.innerHTML = '';
+            catalog.slice().sort(SORTS[order]).forEach(function (product) {
+                var button = el('button', {'data-product-id': String(product.id), onclick: function () {
+                    toggleProduct(user, product, button);
+                }});
+                setButtonState(button, product, inCart.indexOf(product.id) >= 0);
+                var image = user === 'problem_user' ? 'static/img/sl-404.svg' : 'static/img/item-' + product.id + '.svg';
+                list.appendChild(el('div', {'class': 'inventory_item', 'data-test': 'inventory-item'}, [
+                    el('div', {'class': 'inventory_item_img'}, [
+                        el('a', {href: '#', id: 'item_' + product.id + '_img_link'}, [
+                            el('img', {alt: product.name, 'class': 'inventory_item_img', src: image,
+                                'data-test': 'inventory-item-' + product.slug + '-img'})
+                        ])
+                    ]),
+                    el('div', {'class': 'inventory_item_description', 'data-test': 'inventory-item-description'}, [
+                        el('div', {'class': 'inventory_item_label'}, [
+                            el('a', {href: '#', id: 'item_' + product.id + '_title_link',
+                                'data-test': 'item-' + product.id + '-title-link'}, [
+                                el('div', {'class': 'inventory_item_name', 'data-test': 'inventory-item-name',
+                                    text: product.name})
+                            ]),
+                            el('div', {'class': 'inventory_item_desc', 'data-test': 'inventory-item-desc',
+                                text: product.desc})
+                        ]),
+                        el('div', {'class': 'pricebar'}, [
+                            el('div', {'class': 'inventory_item_price', 'data-test': 'inventory-item-price',
+                                text: money(product.price)}),
+                            button
+                        ])
+                    ])
+                ]));
+            });
+        }
+
+        var sort = el('select', {'class': 'product_sort_container', 'data-test': 'product-sort-container',
+            onchange: function () {
+                if (user === 'problem_user') {
+                    sort.value = 'az';
+                    return;
+                }
+                if (user === 'error_user') {
+                    sort.value = 'az';
+                    window.alert('Sorting is broken! This error has been reported to Backtrace.');
+                    return;
+                }
+                fill(sort.value);
+            }}, [
+            el('option', {value: 'az', text: 'Name (A to Z)'}),
+            el('option', {value: 'za', text: 'Name (Z to A)'}),
+            el('option', {value: 'lohi', text: 'Price (low to high)'}),
+            el('option', {value: 'hilo', text: 'Price (high to low)'})
+        ]);
+
+        renderHeader(user, 'Products', [
+            el('div', {'class': 'right_component'}, [el('span', {'class': 'select_container'}, [sort])])
+        ]);
+        fill('az');
+        root.appendChild(el('div', {id: 'inventory_container', 'class': 'inventory_container'}, [list]));
+        renderFooter();
+    }
+
+    // ---------------------------------------------------------------- cart and checkout pages
+
+    function cartList(removable) {
+        var list = el('div', {'class': 'cart_list', 'data-test': 'cart-list'}, [
+            el('div', {'class': 'cart_quantity_label', 'data-test': 'cart-quantity-label', text: 'QTY'}),
+            el('div', {'class': 'cart_desc_label', 'data-test': 'cart-desc-label', text: 'Description'})
+        ]);
+        cartProducts().forEach(function (product) {
+            var pricebar = el('div', {'class': 'item_pricebar'}, [
+                el('div', {'class': 'inventory_item_price', 'data-test': 'inventory-item-price', text: money(product.price)})
+            ]);
+            var item = el('div', {'class': 'cart_item', 'data-test': 'inventory-item'}, [
+                el('div', {'class': 'cart_quantity', 'data-test': 'item-quantity', text: '1'}),
+                el('div', {'class': 'cart_item_label'}, [
+                    el('a', {href: '#', id: 'item_' + product.id + '_title_link'}, [
+                        el('div', {'class': 'inventory_item_name', 'data-test': 'inventory-item-name', text: product.name})
+                    ]),
+                    el('div', {'class': 'inventory_item_desc', 'data-test': 'inventory-item-desc', text: product.desc}),
+                    pricebar
+                ])
+            ]);
+            if (removable) {
+                pricebar.appendChild(el('button', {
+                    'class': 'btn btn_secondary btn_small cart_button', id: 'remove-' + product.slug,
+                    name: 'remove-' + product.slug, 'data-test': 'remove-' + product.slug, text: 'Remove',
+                    onclick: function () {
+                        var ids = cart();
+                        ids.splice(ids.indexOf(product.id), 1);
+                        saveCart(ids);
+                        list.removeChild(item);
+                        updateBadge();
+                    }
+                }));
+            }
+            list.appendChild(item);
+        });
+        return list;
+    }
+
+    function renderCart(user) {
+        renderHeader(user, 'Your Cart');
+        root.appendChild(el('div', {id: 'cart_contents_container', 'class': 'cart_contents_container'}, [
+            cartList(true),
+            el('div', {'class': 'cart_footer'}, [
+                el('button', {'class': 'btn btn_secondary back btn_medium', id: 'continue-shopping',
+                    name: 'continue-shopping', 'data-test': 'continue-shopping', text: 'Continue Shopping',
+                    onclick: function () { location.href = 'inventory.html'; }}),
+                el('button', {'class': 'btn btn_action btn_medium checkout_button', id: 'checkout', name: 'checkout',
+                    'data-test': 'checkout', text: 'Checkout',
+                    onclick: function () { location.href = 'checkout-step-one.html'; }})
+            ])
+        ]));
+        renderFooter();
+    }
+
+    function renderCheckoutInformation(user) {
+        var errorContainer = el('div', {'class': 'error-message-container'});
+        var firstName = el('input', {'class': 'input_error form_input', placeholder: 'First Name', type: 'text',
+            'data-test': 'firstName', id: 'first-name', name: 'firstName'});
+        var lastName = el('input', {'class': 'input_error form_input', placeholder: 'Last Name', type: 'text',
+            'data-test': 'lastName', id: 'last-name', name: 'lastName'});
+        var postalCode = el('input', {'class': 'input_error form_input', placeholder: 'Zip/Postal Code', type: 'text',
+            'data-test': 'postalCode', id: 'postal-code', name: 'postalCode'});
+
+        if (user === 'problem_user') {
+            // Whatever is typed as the last name ends up in the first name
+            lastName.addEventListener('input', function () {
+                firstName.value = lastName.value.slice(-1);
+                lastName.value = '';
+            });
+        }
+
+        function showError(message) {
+            errorContainer.className = 'error-message-container error';
+            errorContainer.innerHTML = '';
+            errorContainer.appendChild(el('h3', {'data-test': 'error'}, [
+                el('button', {'class': 'error-button', 'data-test': 'error-button', 'aria-label': 'close'}),
+                message
+            ]));
+        }
+
+        function submit(event) {
+            event.preventDefault();
+            if (!firstName.value) {
+                showError('Error: First Name is required');
+            } else if (!lastName.value) {
+                showError('Error: Last Name is required');
+            } else if (!postalCode.value) {
+                showError('Error: Postal Code is required');
+            } else {
+                location.href = 'checkout-step-two.html';
+            }
+        }
+
+        renderHeader(user, 'Checkout: Your Information');
+        root.appendChild(el('div', {id: 'checkout_info_container', 'class': 'checkout_info_container'}, [
+            el('form', {onsubmit: submit}, [
+                el('div', {'class': 'checkout_info'}, [
+                    el('div', {'class': 'form_group'}, [firstName]),
+                    el('div', {'class': 'form_group'}, [lastName]),
+                    el('div', {'class': 'form_group'}, [postalCode]),
+                    errorContainer
+                ]),
+                el('div', {'class': 'checkout_buttons'}, [
+                    el('button', {'class': 'btn btn_secondary back btn_medium cart_cancel_link', id: 'cancel',
+                        name: 'cancel', 'data-test': 'cancel', type: 'button', text: 'Cancel',
+                        onclick: function () { location.href = 'cart.html'; }}),
+                    el('input', {type: 'submit', 'class': 'submit-button btn btn_primary cart_button btn_action',
+                        'data-test': 'continue', id: 'continue', name: 'continue', value: 'Continue'})
+                ])
+            ])
+        ]));
+        renderFooter();
+    }
+
+    function renderCheckoutOverview(user) {
+        var subtotal = cartProducts().reduce(function (sum, p) { return sum + p.price; }, 0);
+        var tax = Math.round(subtotal * 0.08);
+        renderHeader(user, 'Checkout: Overview');
+        root.appendChild(el('div', {id: 'checkout_summary_container', 'class': 'checkout_summary_container'}, [
+            cartList(false),
+            el('div', {'class': 'summary_info'}, [
+                el('div', {'class': 'summary_info_label', 'data-test': 'payment-info-label', text: 'Payment Information:'}),
+                el('div', {'class': 'summary_value_label', 'data-test': 'payment-info-value', text: 'SauceCard #31337'}),
+                el('div', {'class': 'summary_info_label', 'data-test': 'shipping-info-label', text: 'Shipping Information:'}),
+                el('div', {'class': 'summary_value_label', 'data-test': 'shipping-info-value',
+                    text: 'Free Pony Express Delivery!'}),
+                el('div', {'class': 'summary_info_label', 'data-test': 'total-info-label', text: 'Price Total'}),
+                el('div', {'class': 'summary_subtotal_label', 'data-test': 'subtotal-label',
+                    text: 'Item total: ' + money(subtotal)}),
+                el('div', {'class': 'summary_tax_label', 'data-test': 'tax-label', text: 'Tax: ' + money(tax)}),
+                el('div', {'class': 'summary_total_label', 'data-test': 'total-label',
+                    text: 'Total: ' + money(subtotal + tax)}),
+                el('div', {'class': 'cart_footer'}, [
+                    el('button', {'class': 'btn btn_secondary back btn_medium cart_cancel_link', id: 'cancel',
+                        name: 'cancel', 'data-test': 'cancel', text: 'Cancel',
+                        onclick: function () { location.href = 'inventory.html'; }}),
+                    el('button', {'class': 'btn btn_action btn_medium cart_button', id: 'finish', name: 'finish',
+                        'data-test': 'finish', text: 'Finish', onclick: function () {
+                            if (user === 'error_user') {
+                                console.error('Failed to finish the order.');
+                                return;
+                            }
+                            saveCart([]);
+                            location.href = 'checkout-complete.html';
+                        }})
+                ])
+            ])
+        ]));
+        renderFooter();
+    }
+
+    function renderCheckoutComplete(user) {
+        renderHeader(user, 'Checkout: Complete!');
+        root.appendChild(el('div', {id: 'checkout_complete_container', 'class': 'checkout_complete_container'}, [
+            el('img', {alt: 'Pony Express', 'class': 'pony_express', 'data-test': 'pony-express',
+                src: 'static/img/pony-express.svg'}),
+            el('h2', {'class': 'complete-header', 'data-test': 'complete-header', text: 'Thank you for your order!'}),
+            el('div', {'class': 'complete-text', 'data-test': 'complete-text',
+                text: 'Your order has been dispatched, and will arrive just as fast as the pony can get there!'}),
+            el('button', {'class': 'btn btn_primary btn_small', id: 'back-to-products', name: 'back-to-products',
+                'data-test': 'back-to-products', text: 'Back Home',
+                onclick: function () { location.href = 'inventory.html'; }})
+        ]));
+        renderFooter();
+    }
+
+    // ---------------------------------------------------------------- routing
+
+    var PAGES = {
+        'inventory.html': renderInventory,
+        'cart.html': renderCart,
+        'checkout-step-one.html': renderCheckoutInformation,
+        'checkout-step-two.html': renderCheckoutOverview,
+        'checkout-complete.html': renderCheckoutComplete
+    };
+
+    if (!PAGES[page]) {
+        renderLogin();
+        return;
+    }
+    var user = currentUser();
+    if (!user) {
+        window.sessionStorage.setItem(LOGIN_ERROR_KEY,
+            "Epic sadface: You can only access '/" + page + "' when you are logged in.");
+        location.replace('./');
+        return;
+    }
+    root.className = 'page_wrapper';
+    PAGES[page](user);
+})();
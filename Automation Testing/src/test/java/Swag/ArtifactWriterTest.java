@@ -0,0 +1,49 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class ArtifactWriterTest {
+
+    private static FailureArtifacts artifacts(String test, long at) {
+        return new FailureArtifacts(test, "standard_user", at, "http://127.0.0.1/cart.html",
+                new byte[]{(byte) 0x89, 'P', 'N', 'G'}, "<html><body>cart</body></html>",
+                List.of("SEVERE Failed to finish the order."), "java.lang.AssertionError: badge");
+    }
+
+    @Test(testName = "AW_TC_01 - Artifacts are written in the background, text compressed")
+    public void writesArtifacts() throws Exception {
+        ArtifactWriter writer = new ArtifactWriter(Files.createTempDirectory("artifacts"), 1, 1);
+        FailureArtifacts failure = artifacts("CheckoutFlowTest.completeCheckoutWithOneItem", 1);
+        writer.submit(failure);
+        Assert.assertTrue(writer.awaitIdle(Duration.ofSeconds(10)));
+
+        Path folder = writer.folderFor(failure);
+        Assert.assertEquals(Files.readAllBytes(folder.resolve("screenshot.png")), failure.screenshot());
+        try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(folder.resolve("page.html.gz")))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            Assert.assertEquals(out.toString(StandardCharsets.UTF_8), failure.pageSource());
+        }
+        Assert.assertTrue(Files.readString(folder.resolve("failure.txt")).contains("cart.html"));
+        Assert.assertEquals(writer.writtenCount(), 1);
+    }
+
+    @Test(testName = "AW_TC_02 - Submitting more than the queue holds waits instead of failing")
+    public void appliesBackpressure() throws Exception {
+        ArtifactWriter writer = new ArtifactWriter(Files.createTempDirectory("artifacts"), 1, 1);
+        for (int i = 0; i < 20; i++) {
+            writer.submit(artifacts("ProductsPageTest.t" + i, i));
+        }
+        Assert.assertTrue(writer.awaitIdle(Duration.ofSeconds(10)));
+        Assert.assertEquals(writer.writtenCount(), 20);
+    }
+}
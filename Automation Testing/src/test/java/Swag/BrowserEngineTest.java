@@ -0,0 +1,33 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class BrowserEngineTest {
+
+    @Test(testName = "BE_TC_01 - A group's engine comes from the suite parameters")
+    public void engineOfGroup() {
+        Map<String, String> parameters = Map.of("swag.engine.be-nonvisual", "headless", "swag.engine.be-plain", "HtmlUnit");
+
+        Assert.assertEquals(BrowserEngine.forGroups(List.of("be-nonvisual"), parameters), BrowserEngine.HEADLESS);
+        Assert.assertEquals(BrowserEngine.forGroups(List.of("be-other", "be-plain"), parameters), BrowserEngine.HTMLUNIT);
+    }
+
+    @Test(testName = "BE_TC_02 - Tests without an engine for their groups use the default")
+    public void fallsBackToDefault() {
+        Assert.assertEquals(BrowserEngine.forGroups(List.of("be-other"), Map.of("swag.engine", "htmlunit")),
+                BrowserEngine.HTMLUNIT);
+        if (System.getProperty(BrowserEngine.PROPERTY) == null) {
+            Assert.assertEquals(BrowserEngine.forGroups(List.of(), Map.of()), BrowserEngine.CHROME);
+        }
+    }
+
+    @Test(testName = "BE_TC_03 - An unknown engine name is rejected",
+            expectedExceptions = IllegalArgumentException.class)
+    public void rejectsUnknownEngine() {
+        BrowserEngine.forGroups(List.of("be-nonvisual"), Map.of("swag.engine.be-nonvisual", "firefox"));
+    }
+}
@@ -0,0 +1,72 @@
+package Swag;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+public class BytecodeFingerprintTest {
+
+    @Test(testName = "BF_TC_01 - Literal locators are read as By.toString() prints them")
+    public void declaredLocators() {
+        Set<String> locators = BytecodeFingerprint.of(CheckoutPage.class.getName()).locators();
+        Assert.assertTrue(locators.contains(By.id("first-name").toString()), locators.toString());
+        Assert.assertTrue(locators.contains(By.cssSelector(".complete-header").toString()), locators.toString());
+        Assert.assertFalse(locators.contains(By.id("user-name").toString()), locators.toString());
+    }
+
+    @Test(testName = "BF_TC_02 - Fingerprints are stable and tell methods apart")
+    public void stableFingerprints() throws IOException {
+        byte[] classFile;
+        try (InputStream in = CheckoutPage.class.getResourceAsStream("CheckoutPage.class")) {
+            classFile = in.readAllBytes();
+        }
+        BytecodeFingerprint.ClassPrint print = BytecodeFingerprint.parse(classFile);
+        Assert.assertEquals(BytecodeFingerprint.parse(classFile), print);
+        Assert.assertNotEquals(print.methods().get("clickContinue"), print.methods().get("clickFinish"));
+        Assert.assertTrue(print.methods().containsKey("<init>"));
+    }
+
+    @Test(testName = "BF_TC_03 - Only tests whose dependencies changed since they passed run again")
+    public void reasonToRun() throws IOException {
+        String clickFinish = TestImpact.method(CheckoutPage.class.getName(), "clickFinish");
+        String finishButton = TestImpact.locator(CheckoutPage.class.getName(), By.id("finish").toString());
+        TestImpact impact = new TestImpact();
+        impact.record("Checkout.unchanged", true, Set.of(clickFinish, finishButton));
+        impact.record("Checkout.failed", false, Set.of(clickFinish));
+        impact.record("Checkout.noBrowser", true, Set.of());
+        impact.record("Checkout.oldLocator", true,
+                Set.of(TestImpact.locator(CheckoutPage.class.getName(), By.id("finish-old").toString())));
+
+        Path file = Files.createTempFile("test-impact", ".tsv");
+        impact.save(file);
+        TestImpact loaded = TestImpact.load(file);
+        Files.delete(file);
+
+        Assert.assertNull(loaded.reasonToRun("Checkout.unchanged"));
+        Assert.assertEquals(loaded.reasonToRun("Checkout.new"), "new");
+        Assert.assertEquals(loaded.reasonToRun("Checkout.failed"), "failed last time");
+        Assert.assertEquals(loaded.reasonToRun("Checkout.noBrowser"), "no recorded dependencies");
+        Assert.assertNotNull(loaded.reasonToRun("Checkout.oldLocator"));
+    }
+
+    @Test(testName = "BF_TC_04 - A method compiled differently since the last run is a change")
+    public void changedMethod() {
+        TestImpact impact = new TestImpact();
+        impact.record("Checkout.changed", true, Set.of(TestImpact.method(CheckoutPage.class.getName(), "clickFinish")));
+        String stamped = impact.get("Checkout.changed").dependencies().iterator().next();
+        Assert.assertTrue(stamped.contains("="), stamped);
+
+        Assert.assertNull(impact.reasonToRun("Checkout.changed"));
+
+        // As stored by a run against an earlier version of the method
+        TestImpact edited = new TestImpact();
+        edited.record("Checkout.changed", true, Set.of(stamped.substring(0, stamped.indexOf('=') + 1) + "0000000000000000"));
+        Assert.assertEquals(edited.reasonToRun("Checkout.changed"), "Swag.CheckoutPage#clickFinish changed");
+    }
+}
@@ -0,0 +1,20 @@
+package Swag;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FormFillerTest {
+
+    @Test(testName = "FF_TC_01 - Id, name and CSS locators are filled by the script")
+    public void scriptableLocators() {
+        Assert.assertEquals(FormFiller.cssSelector(By.id("first-name")), "[id=\"first-name\"]");
+        Assert.assertEquals(FormFiller.cssSelector(By.name("password")), "[name=\"password\"]");
+        Assert.assertEquals(FormFiller.cssSelector(By.cssSelector("input.postal")), "input.postal");
+    }
+
+    @Test(testName = "FF_TC_02 - Other locators are typed for real")
+    public void otherLocatorsAreTyped() {
+        Assert.assertNull(FormFiller.cssSelector(By.xpath("//input[@id='first-name']")));
+    }
+}
@@ -0,0 +1,44 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test(testName = "LH_TC_01 - Percentiles are within the bucket precision")
+    public void percentilesAreAccurate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 ms .. 1000 ms, one sample each
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.recordMicros(ms * 1_000L);
+        }
+        Assert.assertEquals(histogram.count(), 1000);
+        Assert.assertEquals(histogram.percentileMillis(50), 500, 500 * 0.04);
+        Assert.assertEquals(histogram.percentileMillis(95), 950, 950 * 0.04);
+        Assert.assertEquals(histogram.percentileMillis(99), 990, 990 * 0.04);
+        Assert.assertEquals(histogram.maxMillis(), 1000.0);
+        Assert.assertEquals(histogram.meanMillis(), 500.5, 0.001);
+    }
+
+    @Test(testName = "LH_TC_02 - Every value falls in a bucket whose upper bound covers it")
+    public void bucketsCoverValues() {
+        for (long micros : new long[]{0, 1, 63, 64, 65, 1_000, 123_456, 9_999_999, 1L << 40}) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            Assert.assertTrue(LatencyHistogram.upperBoundMicros(bucket) >= micros, "Upper bound below " + micros);
+            if (bucket > 0) {
+                Assert.assertTrue(LatencyHistogram.upperBoundMicros(bucket - 1) < micros, "Previous bucket holds " + micros);
+            }
+        }
+    }
+
+    @Test(testName = "LH_TC_03 - Histograms merge per step")
+    public void merge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.recordNanos(2_000_000);
+        b.recordNanos(8_000_000);
+        a.add(b);
+        Assert.assertEquals(a.count(), 2);
+        Assert.assertEquals(a.maxMillis(), 8.0);
+    }
+}
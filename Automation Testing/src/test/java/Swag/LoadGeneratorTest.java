@@ -0,0 +1,49 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+public class LoadGeneratorTest {
+
+    private StandInServer server;
+
+    @BeforeClass
+    public void startServer() {
+        server = new StandInServer(0, 6, 0).start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test(testName = "LG_TC_01 - Checkout journey replays without errors for every checkout user")
+    public void replaysCheckoutJourney() {
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(50, Duration.ofSeconds(3), Duration.ZERO, Duration.ZERO);
+        LoadGenerator.Result result = new LoadGenerator(server.baseUrl(), HttpJourney.checkout(),
+                LoginData.checkoutUsers(), settings).run();
+
+        Assert.assertTrue(result.journeys() > 0, result.format());
+        Assert.assertEquals(result.failedJourneys(), 0, result.format());
+        for (HttpJourney.Step step : HttpJourney.checkout().steps()) {
+            Assert.assertTrue(result.steps().get(step.name()).ok() > 0, "No successful " + step.name());
+            Assert.assertEquals(result.steps().get(step.name()).errors(), 0, result.format());
+        }
+    }
+
+    @Test(testName = "LG_TC_02 - Rejected logins are counted as errors and end the journey")
+    public void countsErrors() {
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(5, Duration.ofMillis(500), Duration.ZERO, Duration.ZERO);
+        LoadGenerator.Result result = new LoadGenerator(server.baseUrl(), HttpJourney.checkout(),
+                List.of("locked_out_user"), settings).run();
+
+        Assert.assertEquals(result.journeys(), 0);
+        Assert.assertTrue(result.steps().get("login.submit").errorRate() == 1.0, result.format());
+        Assert.assertEquals(result.steps().get("inventory").ok() + result.steps().get("inventory").errors(), 0);
+    }
+}
@@ -0,0 +1,58 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+
+public class PerformanceBudgetTest {
+
+    private static PerformanceBudget budget(PerformanceBudget.Mode mode) {
+        Properties properties = new Properties();
+        properties.setProperty("user.performance_glitch_user", "slow");
+        properties.setProperty("default.SessionCache.login", "5000");
+        properties.setProperty("slow.SessionCache.login", "10000");
+        properties.setProperty("default.CheckoutPage.clickFinish", "2000");
+        return new PerformanceBudget(properties, mode);
+    }
+
+    @AfterMethod
+    public void clearUser() {
+        TestContext.clear();
+    }
+
+    @Test(testName = "PB_TC_01 - Budgets are looked up per user class with a default")
+    public void resolvesPerUserClass() {
+        PerformanceBudget budget = budget(PerformanceBudget.Mode.FAIL);
+
+        Assert.assertEquals(budget.budgetMillis("performance_glitch_user", "SessionCache.login").getAsLong(), 10000);
+        Assert.assertEquals(budget.budgetMillis("standard_user", "SessionCache.login").getAsLong(), 5000);
+        Assert.assertEquals(budget.budgetMillis("performance_glitch_user", "CheckoutPage.clickFinish").getAsLong(), 2000);
+        Assert.assertTrue(budget.budgetMillis("standard_user", "ProductsPage.sortByNameZToA").isEmpty());
+    }
+
+    @Test(testName = "PB_TC_02 - An overrun fails with the measured time in fail mode")
+    public void failsOnOverrun() {
+        TestContext.setUser("performance_glitch_user");
+        PerformanceBudget budget = budget(PerformanceBudget.Mode.FAIL);
+        budget.check("SessionCache.login", 9_000_000_000L);
+
+        PerformanceBudget.BudgetExceededError error = Assert.expectThrows(PerformanceBudget.BudgetExceededError.class,
+                () -> budget.check("SessionCache.login", 25_000_000_000L));
+        Assert.assertEquals(error.violation().budgetMillis(), 10000);
+        Assert.assertEquals(error.violation().measuredMillis(), 25000.0);
+        Assert.assertTrue(error.getMessage().contains("25000 ms"), error.getMessage());
+    }
+
+    @Test(testName = "PB_TC_03 - An overrun is only recorded in warn mode")
+    public void warnsOnOverrun() {
+        TestContext.setUser("standard_user");
+        PerformanceBudget budget = budget(PerformanceBudget.Mode.WARN);
+
+        budget.check("CheckoutPage.clickFinish", 3_000_000_000L);
+
+        Assert.assertEquals(budget.violations().size(), 1);
+        Assert.assertEquals(budget.violations().get(0).user(), "standard_user");
+    }
+}
@@ -0,0 +1,56 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class PerformanceHistoryTest {
+
+    private static PerformanceHistory.Run run(String commit, long loginP95Millis) {
+        return new PerformanceHistory.Run(System.currentTimeMillis(), commit, List.of(
+                new PerformanceHistory.StepStats("performance_glitch_user", "SessionCache.login", 5,
+                        loginP95Millis * 900, loginP95Millis * 1000, loginP95Millis * 1100),
+                new PerformanceHistory.StepStats("standard_user", "ProductsPage.clickCartIcon", 20, 40_000, 60_000, 80_000)));
+    }
+
+    @Test(testName = "PH_TC_01 - Runs are appended and indexed by commit, user and step")
+    public void appendsAndReads() throws Exception {
+        Path file = Files.createTempDirectory("perf").resolve("perf-history.bin");
+        PerformanceHistory.open(file).append(run("aaa", 5_000));
+        PerformanceHistory.open(file).append(run("bbb", 5_100));
+
+        PerformanceHistory history = PerformanceHistory.open(file);
+        Assert.assertEquals(history.runs().size(), 2);
+        Assert.assertEquals(history.runsOf("bbb").size(), 1);
+        Assert.assertEquals(history.history("performance_glitch_user", "SessionCache.login").get(1).p95Micros(), 5_100_000);
+    }
+
+    @Test(testName = "PH_TC_02 - A torn block at the end is ignored")
+    public void ignoresTornTail() throws Exception {
+        Path file = Files.createTempDirectory("perf").resolve("perf-history.bin");
+        PerformanceHistory.open(file).append(run("aaa", 5_000));
+        Files.write(file, new byte[]{0x53, 0x57, 0x50, 0x48, 0, 0, 1}, StandardOpenOption.APPEND);
+
+        Assert.assertEquals(PerformanceHistory.open(file).runs().size(), 1);
+    }
+
+    @Test(testName = "PH_TC_03 - Only steps beyond the threshold are flagged")
+    public void detectsRegressions() throws Exception {
+        Path file = Files.createTempDirectory("perf").resolve("perf-history.bin");
+        PerformanceHistory history = PerformanceHistory.open(file);
+        for (long p95 : new long[]{5_000, 5_200, 4_900}) {
+            history.append(run("base", p95));
+        }
+        RegressionDetector detector = new RegressionDetector(5, 0.25, 50, 3);
+
+        Assert.assertTrue(detector.detect(history, run("ok", 6_000)).isEmpty());
+        List<RegressionDetector.Regression> regressions = detector.detect(history, run("slow", 8_000));
+        Assert.assertEquals(regressions.size(), 1);
+        Assert.assertEquals(regressions.get(0).user(), "performance_glitch_user");
+        Assert.assertEquals(regressions.get(0).baselineP95Millis(), 5_000.0);
+    }
+}
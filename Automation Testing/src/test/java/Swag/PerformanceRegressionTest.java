@@ -0,0 +1,27 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+/**
+ * Runs last in testng.xml, after every UI test has recorded its steps. With {@code -Dswag.perf.regressions=fail} it
+ * fails when a step of this run regressed against the {@link PerformanceHistory}; the run itself is appended and the
+ * report written by {@link PerformanceHistoryListener} when the suite finishes.
+ */
+public class PerformanceRegressionTest {
+
+    @Test(testName = "PERF_TC_01 - No step regressed against the rolling baseline")
+    public void noStepRegressed() {
+        if (!RegressionDetector.failOnRegression() || !StepMetrics.enabled() || StepMetrics.snapshot().isEmpty()) {
+            throw new SkipException("Regressions only fail the run with -Dswag.perf.regressions=fail and step metrics on");
+        }
+        PerformanceHistory.Run run = PerformanceHistory.fromStepMetrics(System.currentTimeMillis(),
+                PerformanceHistory.currentCommit());
+        List<RegressionDetector.Regression> regressions = RegressionDetector.fromSystemProperties()
+                .detect(PerformanceHistory.open(PerformanceHistory.defaultFile()), run);
+        Assert.assertTrue(regressions.isEmpty(), regressions.size() + " step(s) regressed (p95): " + regressions);
+    }
+}
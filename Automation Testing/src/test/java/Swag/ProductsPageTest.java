@@ -2,80 +2,46 @@ package Swag;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.UnexpectedAlertBehaviour;
-import org.openqa.selenium.remote.CapabilityType;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.FluentWait;
-import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.List;
 
+@Test(groups = "nonvisual")
 public class ProductsPageTest {
 
-    private WebDriver driver;
-    private final String url = "https://www.saucedemo.com/";
-
-    // Login locators
-    private final By userNameLocator = By.id("user-name");
-    private final By passwordLocator = By.name("password");
-    private final By loginButtonLocator = By.id("login-button");
-
     @BeforeMethod
     public void setUp() {
-        ChromeOptions options = new ChromeOptions();
-        Map<String, Object> prefs = new HashMap<>();
-        // Disable Chrome password save/change prompts
-        prefs.put("credentials_enable_service", false);
-        prefs.put("profile.password_manager_enabled", false);
-        // Block site notifications
-        prefs.put("profile.default_content_setting_values.notifications", 2);
-        options.setExperimentalOption("prefs", prefs);
-        // Dismiss any unexpected JS alerts/prompts to avoid interrupting tests
-        options.setCapability(CapabilityType.UNHANDLED_PROMPT_BEHAVIOUR, UnexpectedAlertBehaviour.DISMISS);
-        options.addArguments("--disable-notifications");
-        driver = new ChromeDriver(options);
-        driver.manage().window().maximize();
-        driver.get(url);
-        // Login with a valid user
-        driver.findElement(userNameLocator).sendKeys(LoginData.userName[0]);
-        driver.findElement(passwordLocator).sendKeys(LoginData.password);
-        driver.findElement(loginButtonLocator).click();
-        // Fluent wait after login (up to 20 seconds) for Products page to be ready
-        Wait<WebDriver> wait = new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(20))
-                .pollingEvery(Duration.ofMillis(500))
-                .ignoring(NoSuchElementException.class);
-        wait.until(d -> d.findElement(By.cssSelector("span.title")).isDisplayed());
+        // Lease a warm browser for this thread from the pool; its reset was verified, so the cart starts empty
+        DriverManager.start();
+        // Log in as a valid user, from the session cache when possible
+        SessionCache.shared().login(driver(), LoginData.userName[0]);
     }
 
     @AfterMethod
     public void tearDown() {
-        if (driver != null) {
-            driver.quit();
-        }
+        // Reset this thread's browser and hand it back to the pool
+        DriverManager.stop();
+    }
+
+    // The browser leased by the current test thread
+    private WebDriver driver() {
+        return DriverManager.getDriver();
     }
 
     @Test(testName = "PP_TC_01 - Verify Products title is displayed")
     public void verifyProductsTitle() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         Assert.assertEquals(products.getTitleText(), "Products", "Products title should be visible");
-        Assert.assertTrue(driver.getCurrentUrl().contains("inventory.html"), "Should be on inventory page");
+        Assert.assertTrue(driver().getCurrentUrl().contains("inventory.html"), "Should be on inventory page");
     }
 
     @Test(testName = "PP_TC_02 - Verify cart badge increments after adding an item")
     public void verifyAddToCartBadgeIncrements() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         int before = products.getCartBadgeCount();
         products.addFirstItemToCart();
         int after = products.getCartBadgeCount();
@@ -84,7 +50,7 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_03 - Add to Cart changes to Remove and badge updates")
     public void addToCartChangesButtonAndBadge() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         // Initially the first item's button should be Add to cart
         String beforeText = products.getFirstItemButtonText();
         Assert.assertTrue(beforeText.equalsIgnoreCase("Add to cart"), "Initial button should be 'Add to cart'");
@@ -100,7 +66,7 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_04 - Add multiple items updates badge count accordingly")
     public void addMultipleItemsIncrementsBadge() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         int before = products.getCartBadgeCount();
         int toAdd = 3;
         products.addMultipleItems(toAdd);
@@ -110,7 +76,7 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_05 - Removing an item reverts its button back to Add to cart")
     public void removeRevertsButtonToAdd() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         // Ensure item is added first
         products.addFirstItemToCart();
         Assert.assertTrue(products.getFirstItemButtonText().equalsIgnoreCase("Remove"), "Should be 'Remove' after adding");
@@ -123,9 +89,7 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_06 - Removing last item hides the cart badge")
     public void removingLastItemHidesBadge() {
-        ProductsPage products = new ProductsPage(driver);
-        // Clean state: remove all items if any
-        products.removeAllItemsFromCart();
+        ProductsPage products = new ProductsPage(driver());
         Assert.assertFalse(products.isCartBadgeVisible(), "Badge should not be visible when cart is empty at start");
 
         // Add then remove single item
@@ -138,7 +102,7 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_07 - Verify sorting Name (Z to A) changes first item")
     public void verifySortingZToAChangesOrder() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         String before = products.getFirstItemName();
         products.sortByNameZToA();
         String after = products.getFirstItemName();
@@ -147,20 +111,18 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_08 - Verify logout from products page returns to login")
     public void verifyLogout() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         // Wait after login to ensure products page is fully loaded before attempting logout
-        new WebDriverWait(driver, Duration.ofSeconds(10))
+        WaitEngine.forStep(driver(), "inventory.title", Duration.ofSeconds(10))
                 .until(ExpectedConditions.visibilityOfElementLocated(By.cssSelector("span.title")));
         products.logout();
-        Assert.assertTrue(driver.getCurrentUrl().startsWith("https://www.saucedemo.com"), "Should be back on login page");
-        Assert.assertTrue(driver.findElement(By.id("login-button")).isDisplayed(), "Login button should be visible after logout");
+        Assert.assertTrue(driver().getCurrentUrl().startsWith(AppUnderTest.baseUrl()), "Should be back on login page");
+        Assert.assertTrue(driver().findElement(By.id("login-button")).isDisplayed(), "Login button should be visible after logout");
     }
 
     @Test(testName = "PP_TC_09 - State persists on refresh: Verify cart state after refresh")
     public void statePersistsOnRefresh() {
-        ProductsPage products = new ProductsPage(driver);
-        // Clean state
-        products.removeAllItemsFromCart();
+        ProductsPage products = new ProductsPage(driver());
         int initial = products.getCartBadgeCount();
         Assert.assertEquals(initial, 0, "Precondition: badge should be 0");
 
@@ -171,8 +133,8 @@ public class ProductsPageTest {
         Assert.assertTrue(products.getFirstItemButtonText().equalsIgnoreCase("Remove"), "Button should be Remove before refresh");
 
         // Refresh and re-assert
-        driver.navigate().refresh();
-        new WebDriverWait(driver, Duration.ofSeconds(10))
+        driver().navigate().refresh();
+        WaitEngine.forStep(driver(), "inventory.title", Duration.ofSeconds(10))
                 .until(ExpectedConditions.visibilityOfElementLocated(By.cssSelector("span.title")));
         Assert.assertEquals(products.getCartBadgeCount(), beforeRefreshBadge, "Badge count should persist after refresh");
         Assert.assertTrue(products.getFirstItemButtonText().equalsIgnoreCase("Remove"), "Button should remain Remove after refresh");
@@ -180,19 +142,17 @@ public class ProductsPageTest {
 
     @Test(testName = "PP_TC_10 - Cart navigation: Cart icon redirects to Cart page")
     public void cartIconNavigatesToCartPage() {
-        ProductsPage products = new ProductsPage(driver);
+        ProductsPage products = new ProductsPage(driver());
         products.clickCartIcon();
-        new WebDriverWait(driver, Duration.ofSeconds(10))
+        WaitEngine.forStep(driver(), "url:cart.html", Duration.ofSeconds(10))
                 .until(ExpectedConditions.urlContains("cart.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("cart.html"), "URL should be cart page");
+        Assert.assertTrue(driver().getCurrentUrl().contains("cart.html"), "URL should be cart page");
         Assert.assertEquals(products.getTitleText(), "Your Cart", "Cart page title should be 'Your Cart'");
     }
 
     @Test(testName = "PP_TC_11 - Cart content matches badge: Ensure cart matches badge count")
     public void cartContentMatchesBadge() {
-        ProductsPage products = new ProductsPage(driver);
-        // Ensure clean state
-        products.removeAllItemsFromCart();
+        ProductsPage products = new ProductsPage(driver());
         Assert.assertEquals(products.getCartBadgeCount(), 0, "Badge should be 0 at start");
 
         int toAdd = 3;
@@ -201,30 +161,27 @@ public class ProductsPageTest {
         Assert.assertEquals(badge, toAdd, "Badge should equal number of items added");
 
         products.clickCartIcon();
-        new WebDriverWait(driver, Duration.ofSeconds(10))
+        WaitEngine.forStep(driver(), "url:cart.html", Duration.ofSeconds(10))
                 .until(ExpectedConditions.urlContains("cart.html"));
-        int cartCount = products.getCartItemsCount();
-        Assert.assertEquals(cartCount, badge, "Number of items listed in cart should match badge count");
+        // Badge and cart rows read together in one round trip
+        PageSnapshot cart = products.snapshot();
+        Assert.assertEquals(cart.badgeCount(), badge, "Badge should be unchanged on the cart page");
+        Assert.assertEquals(cart.cart().size(), badge, "Number of items listed in cart should match badge count");
     }
 
     @Test(testName = "PP_TC_12 - Add same product multiple times: Ensure product not duplicated")
     public void addingSameProductIsNotDuplicated() {
-        ProductsPage products = new ProductsPage(driver);
-        // Ensure clean slate
-        products.removeAllItemsFromCart();
-
+        ProductsPage products = new ProductsPage(driver());
         String firstName = products.getFirstItemName();
         products.addFirstItemToCart();
         // Attempting to add again isn't possible (button is Remove). Navigate to cart and verify single occurrence
         products.clickCartIcon();
-        new WebDriverWait(driver, Duration.ofSeconds(10))
+        WaitEngine.forStep(driver(), "url:cart.html", Duration.ofSeconds(10))
                 .until(ExpectedConditions.urlContains("cart.html"));
-        List<String> names = products.getCartItemNames();
-        long occurrences = 0;
-        for (String n : names) {
-            if (n.equalsIgnoreCase(firstName)) occurrences++;
-        }
-        Assert.assertEquals(occurrences, 1, "Product should appear only once in the cart");
+        PageSnapshot cart = products.snapshot();
+        Assert.assertEquals(cart.cartOccurrences(firstName), 1, "Product should appear only once in the cart");
+        Assert.assertEquals(cart.cart().size(), 1, "Cart should hold exactly the one added product");
+        Assert.assertEquals(cart.badgeCount(), 1, "Badge should count the product once");
 
     }
 }
@@ -0,0 +1,42 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ResourceSamplerTest {
+
+    @Test(testName = "RS_TC_01 - A process tree is followed through its children")
+    public void followsProcessTree() throws Exception {
+        if (!ResourceSampler.enabled()) {
+            throw new SkipException("No /proc on this machine");
+        }
+        // A shell with two children, standing in for chromedriver and its browser processes
+        Process shell = new ProcessBuilder("sh", "-c", "sleep 3 & sleep 3 & wait").start();
+        try {
+            Thread.sleep(300);
+            ResourceSampler.Tracker tracker = ResourceSampler.begin(shell.pid());
+            Thread.sleep(300);
+            ResourceSampler.Usage usage = ResourceSampler.end(tracker);
+
+            Assert.assertEquals(usage.peakProcesses(), 3);
+            Assert.assertTrue(usage.peakRssBytes() > 0, "RSS should be read from /proc");
+            Assert.assertTrue(usage.peakThreads() >= 3, "Every process has at least one thread");
+            Assert.assertTrue(usage.peakFileDescriptors() > 0, "Open descriptors should be counted");
+            Assert.assertTrue(usage.samples() >= 2);
+        } finally {
+            shell.descendants().forEach(ProcessHandle::destroy);
+            shell.destroy();
+            shell.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test(testName = "RS_TC_02 - CPU time is read past a command name with spaces")
+    public void parsesStat() {
+        String stat = "4242 (Chrome Helper (GPU)) S 1 4242 4242 0 -1 4194560 2000 0 0 0 150 75 0 0 20 0 9 0 100 0 0";
+
+        Assert.assertEquals(ResourceSampler.cpuTicks(stat), 225);
+    }
+}
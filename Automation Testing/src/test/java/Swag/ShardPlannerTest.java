@@ -0,0 +1,38 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ShardPlannerTest {
+
+    @Test(testName = "SP_TC_01 - Shards are balanced on duration, not on test count")
+    public void balancesDurations() {
+        Map<String, Long> history = Map.of("A.slow", 9_000L, "A.b", 3_000L, "A.c", 3_000L, "A.d", 3_000L);
+        ShardPlanner.Plan plan = ShardPlanner.plan(history.keySet(), history, 2);
+
+        Assert.assertEquals(plan.makespanMillis(), 9_000);
+        int slowShard = plan.shardOf().get("A.slow");
+        for (String unit : List.of("A.b", "A.c", "A.d")) {
+            Assert.assertNotEquals(plan.shardOf().get(unit).intValue(), slowShard, unit + " should not share the slow shard");
+        }
+    }
+
+    @Test(testName = "SP_TC_02 - Units without history get the median duration")
+    public void unknownUnitsUseMedian() {
+        Map<String, Long> history = Map.of("A.a", 1_000L, "A.b", 2_000L, "A.c", 3_000L);
+        ShardPlanner.Plan plan = ShardPlanner.plan(List.of("A.a", "A.b", "A.c", "A.new"), history, 1);
+
+        Assert.assertEquals(plan.loadMillis()[0], 8_000);
+    }
+
+    @Test(testName = "SP_TC_03 - Every JVM computes the same plan")
+    public void planIsDeterministic() {
+        Map<String, Long> history = Map.of("A.a", 5L, "A.b", 5L, "A.c", 5L, "A.d", 5L, "A.e", 5L);
+        Assert.assertEquals(ShardPlanner.plan(List.of("A.e", "A.d", "A.c", "A.b", "A.a"), history, 3).shardOf(),
+                ShardPlanner.plan(List.of("A.a", "A.b", "A.c", "A.d", "A.e"), history, 3).shardOf());
+        Assert.assertEquals(ShardPlanner.fallbackShard("A.f[x]", 3), ShardPlanner.fallbackShard("A.f[x]", 3));
+    }
+}
@@ -0,0 +1,95 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+public class StandInServerTest {
+
+    private StandInServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeClass
+    public void startServer() {
+        server = new StandInServer(0, 8, 300).start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(server.baseUrl() + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> login(String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl() + "api/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=" + username + "&password=" + password))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test(testName = "SI_TC_01 - Every page of the journey is served")
+    public void servesAllPages() throws Exception {
+        for (String page : new String[]{"", "inventory.html", "cart.html", "checkout-step-one.html",
+                "checkout-step-two.html", "checkout-complete.html"}) {
+            HttpResponse<String> response = get(page);
+            Assert.assertEquals(response.statusCode(), 200, "Page should be served: " + page);
+            Assert.assertTrue(response.body().contains("static/app.js"), "Page should load the app: " + page);
+        }
+        Assert.assertEquals(get("missing.html").statusCode(), 404);
+    }
+
+    @Test(testName = "SI_TC_02 - Script uses the locators the page objects rely on")
+    public void scriptRendersPageObjectLocators() throws Exception {
+        String script = get("static/app.js").body();
+        for (String locator : new String[]{"user-name", "login-button", "react-burger-menu-btn", "logout_sidebar_link",
+                "shopping_cart_link", "shopping_cart_badge", "product_sort_container", "inventory_item_name",
+                "add-to-cart-", "remove-", "first-name", "last-name", "postal-code", "complete-header"}) {
+            Assert.assertTrue(script.contains(locator), "Script should render " + locator);
+        }
+    }
+
+    @Test(testName = "SI_TC_03 - Catalog starts with the real products and is padded to size")
+    public void catalogIsPadded() {
+        Assert.assertEquals(server.catalog().size(), 8);
+        Assert.assertEquals(server.catalog().get(0).name(), "Sauce Labs Backpack");
+        Assert.assertEquals(server.catalog().get(0).slug(), "sauce-labs-backpack");
+        Assert.assertEquals(server.catalog().get(5).slug(), "test.allthethings()-t-shirt-(red)");
+        Assert.assertEquals(server.catalog().get(7).id(), 7);
+    }
+
+    @Test(testName = "SI_TC_04 - Login accepts valid users and rejects locked out or unknown ones")
+    public void loginQuirks() throws Exception {
+        Assert.assertEquals(login("standard_user", LoginData.password).statusCode(), 200);
+        HttpResponse<String> locked = login("locked_out_user", LoginData.password);
+        Assert.assertEquals(locked.statusCode(), 403);
+        Assert.assertTrue(locked.body().contains("Sorry, this user has been locked out."));
+        Assert.assertEquals(login("standard_user", "wrong").statusCode(), 401);
+    }
+
+    @Test(testName = "SI_TC_05 - performance_glitch_user is delayed at login")
+    public void glitchUserIsDelayed() throws Exception {
+        long start = System.nanoTime();
+        Assert.assertEquals(login("performance_glitch_user", LoginData.password).statusCode(), 200);
+        Assert.assertTrue((System.nanoTime() - start) / 1_000_000 >= 300, "Login should take the configured delay");
+    }
+
+    @Test(testName = "SI_TC_06 - HEAD reports the size of static files without sending them")
+    public void headReportsSize() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(server.baseUrl() + "static/img/sauce-labs-backpack.svg"))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        Assert.assertEquals(response.statusCode(), 200);
+        Assert.assertTrue(response.headers().firstValueAsLong("Content-Length").orElse(0) > 0);
+        Assert.assertEquals(response.body(), "");
+    }
+}
@@ -0,0 +1,72 @@
+package Swag;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+public class TimeoutPolicyTest {
+
+    private static final Duration FALLBACK = Duration.ofSeconds(10);
+
+    private static PerformanceHistory history(long... p99Millis) throws Exception {
+        Path file = Files.createTempDirectory("timeouts").resolve("perf-history.bin");
+        PerformanceHistory history = PerformanceHistory.open(file);
+        for (long p99 : p99Millis) {
+            history.append(new PerformanceHistory.Run(System.currentTimeMillis(), "test", List.of(
+                    new PerformanceHistory.StepStats("performance_glitch_user", "wait:url:cart.html", 4,
+                            p99 * 500, p99 * 900, p99 * 1000),
+                    new PerformanceHistory.StepStats("standard_user", "wait:url:cart.html", 4, 20_000, 40_000, 50_000))));
+        }
+        return history;
+    }
+
+    private static TimeoutPolicy policy(PerformanceHistory history) {
+        return new TimeoutPolicy(history, true, 3, Duration.ofSeconds(2), Duration.ofSeconds(30), 5, 5, 0.8);
+    }
+
+    @Test(testName = "TP_TC_01 - The deadline is a multiple of the slowest recent p99 of that user")
+    public void learnsPerUser() throws Exception {
+        TimeoutPolicy policy = policy(history(4_000, 5_000));
+
+        Assert.assertEquals(policy.timeout("performance_glitch_user", "url:cart.html", FALLBACK), Duration.ofSeconds(15));
+    }
+
+    @Test(testName = "TP_TC_02 - Deadlines are clamped to the floor and the ceiling")
+    public void clamps() throws Exception {
+        Assert.assertEquals(policy(history(100, 100)).timeout("standard_user", "url:cart.html", FALLBACK),
+                Duration.ofSeconds(2));
+        Assert.assertEquals(policy(history(20_000, 20_000)).timeout("performance_glitch_user", "url:cart.html", FALLBACK),
+                Duration.ofSeconds(30));
+    }
+
+    @Test(testName = "TP_TC_03 - Without enough history the default applies")
+    public void fallsBack() throws Exception {
+        TimeoutPolicy policy = policy(history(5_000));
+
+        Assert.assertEquals(policy.timeout("performance_glitch_user", "url:cart.html", FALLBACK), FALLBACK);
+        Assert.assertEquals(policy.timeout("problem_user", "url:cart.html", FALLBACK), FALLBACK);
+        Assert.assertEquals(policy.report(), "Timeouts: learned=0, default=2, near budget=0, timed out=0");
+    }
+
+    @Test(testName = "TP_TC_04 - Waits are learned per deployment and engine")
+    public void learnsPerTarget() throws Exception {
+        Path file = Files.createTempDirectory("timeouts").resolve("perf-history.bin");
+        PerformanceHistory history = PerformanceHistory.open(file);
+        history.append(new PerformanceHistory.Run(System.currentTimeMillis(), "test", List.of(
+                new PerformanceHistory.StepStats("standard_user", "wait:url:cart.html [stand-in/headless]", 10,
+                        5_000, 8_000, 10_000),
+                new PerformanceHistory.StepStats("standard_user", "wait:url:cart.html [www.saucedemo.com/chrome]", 10,
+                        2_000_000, 3_000_000, 4_000_000))));
+        TimeoutPolicy policy = policy(history);
+
+        Assert.assertEquals(policy.timeout("standard_user", "url:cart.html [stand-in/headless]", FALLBACK),
+                Duration.ofSeconds(2));
+        Assert.assertEquals(policy.timeout("standard_user", "url:cart.html [www.saucedemo.com/chrome]", FALLBACK),
+                Duration.ofSeconds(12));
+        Assert.assertTrue(TimeoutPolicy.qualify("url:cart.html").startsWith("url:cart.html [www.saucedemo.com/"));
+    }
+}
@@ -0,0 +1,168 @@
+package Swag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page-object operations timed end to end against the embedded {@link StandInServer} with headless Chrome. Every
+ * catalog size runs in its own fork because {@link AppUnderTest} resolves the base URL once per JVM. Operations
+ * that change the page are prepared per invocation (fresh inventory, empty cart), which JMH allows because each
+ * one takes milliseconds.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+// Step metrics are off so the numbers are the page objects' own cost
+@Fork(value = 1, jvmArgsAppend = {"-Dswag.metrics=false", "-Dswag.session.ttlSeconds=86400"})
+@State(Scope.Thread)
+public class PageObjectBenchmark {
+
+    private static final String USER = "standard_user";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({"6", "60", "600"})
+    public int catalogSize;
+
+    private StandInServer server;
+    private WebDriver driver;
+    private ProductsPage products;
+    private CheckoutPage checkout;
+    private final SessionCache uiLogin = new SessionCache(Duration.ZERO, false);
+
+    @Setup(Level.Trial)
+    public void start() {
+        server = new StandInServer(0, catalogSize, 0).start();
+        System.setProperty("swag.baseUrl", server.baseUrl());
+        driver = DriverFactory.createHeadless();
+        products = new ProductsPage(driver);
+        checkout = new CheckoutPage(driver);
+        // Prime the shared session cache
+        SessionCache.shared().login(driver, USER);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        driver.quit();
+        server.stop();
+    }
+
+    // Logged in, on a freshly loaded inventory page with an empty cart
+    void openInventory() {
+        ((JavascriptExecutor) driver).executeScript("window.localStorage.removeItem('cart-contents');");
+        driver.get(AppUnderTest.baseUrl() + "inventory.html");
+        new WaitEngine(driver, TIMEOUT).until(ExpectedConditions.urlContains("inventory.html"));
+    }
+
+    void signOut() {
+        driver.manage().deleteAllCookies();
+        ((JavascriptExecutor) driver).executeScript("window.localStorage.clear();");
+    }
+
+    @State(Scope.Thread)
+    public static class LoggedOut {
+
+        @Setup(Level.Invocation)
+        public void prepare(PageObjectBenchmark benchmark) {
+            benchmark.signOut();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyCart {
+
+        @Setup(Level.Invocation)
+        public void prepare(PageObjectBenchmark benchmark) {
+            benchmark.openInventory();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ItemsToAdd {
+
+        @Param({"1", "3", "6"})
+        public int count;
+
+        @Setup(Level.Invocation)
+        public void prepare(PageObjectBenchmark benchmark) {
+            benchmark.openInventory();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FullCart {
+
+        // The cart page does not change while it is only read, so it is prepared once per iteration
+        @Setup(Level.Iteration)
+        public void prepare(PageObjectBenchmark benchmark) {
+            benchmark.openInventory();
+            benchmark.products.addAllItems();
+            benchmark.products.clickCartIcon();
+        }
+    }
+
+    @Benchmark
+    public void loginThroughUi(LoggedOut state) {
+        uiLogin.login(driver, USER);
+    }
+
+    @Benchmark
+    public void loginFromSessionCache(LoggedOut state) {
+        SessionCache.shared().login(driver, USER);
+    }
+
+    @Benchmark
+    public void addFirstItemToCart(EmptyCart state) {
+        products.addFirstItemToCart();
+    }
+
+    @Benchmark
+    public void addMultipleItems(ItemsToAdd state) {
+        products.addMultipleItems(state.count);
+    }
+
+    @Benchmark
+    public List<String> getCartItemNames(FullCart state) {
+        return products.getCartItemNames();
+    }
+
+    @Benchmark
+    public void sortByNameZToA(EmptyCart state, Blackhole blackhole) {
+        products.sortByNameZToA();
+        blackhole.consume(products.getFirstItemName());
+    }
+
+    @Benchmark
+    public String fullCheckout(EmptyCart state) {
+        products.addFirstItemToCart();
+        products.clickCartIcon();
+        new WaitEngine(driver, TIMEOUT).until(ExpectedConditions.urlContains("cart.html"));
+        checkout.clickCheckout();
+        new WaitEngine(driver, TIMEOUT).until(ExpectedConditions.urlContains("checkout-step-one.html"));
+        checkout.fillInformation("bench", "mark", "12345");
+        checkout.clickContinue();
+        new WaitEngine(driver, TIMEOUT).until(ExpectedConditions.urlContains("checkout-step-two.html"));
+        checkout.clickFinish();
+        new WaitEngine(driver, TIMEOUT).until(ExpectedConditions.urlContains("checkout-complete.html"));
+        return checkout.getCompleteHeaderText();
+    }
+}